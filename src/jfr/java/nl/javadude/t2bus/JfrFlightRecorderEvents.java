@@ -0,0 +1,162 @@
+package nl.javadude.t2bus;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The {@link FlightRecorderEvents} of runtimes with JFR, loaded reflectively
+ * by the bus.  Compiled separately, as JFR postdates the Java version the bus
+ * is built for, and shipped in the Multi-Release part of the jar for Java 11.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+final class JfrFlightRecorderEvents extends FlightRecorderEvents {
+    /**
+     * Instances that are never committed, only used to check whether their event is enabled.
+     */
+    private static final PostEvent POST = new PostEvent();
+    private static final DispatchEvent DISPATCH = new DispatchEvent();
+    private static final HandleEvent HANDLE = new HandleEvent();
+
+    JfrFlightRecorderEvents() {
+    }
+
+    @Override
+    Object beginPost() {
+        if (!POST.isEnabled()) {
+            return null;
+        }
+        PostEvent recording = new PostEvent();
+        recording.begin();
+        return recording;
+    }
+
+    @Override
+    void endPost(Object recording, Class<?> eventClass, boolean dead) {
+        if (recording == null) {
+            return;
+        }
+        PostEvent post = (PostEvent) recording;
+        post.end();
+        if (post.shouldCommit()) {
+            post.eventClass = eventClass;
+            post.dead = dead;
+            post.commit();
+        }
+    }
+
+    @Override
+    Object beginDispatch() {
+        if (!DISPATCH.isEnabled()) {
+            return null;
+        }
+        DispatchEvent recording = new DispatchEvent();
+        recording.begin();
+        return recording;
+    }
+
+    @Override
+    void endDispatch(Object recording, Class<?> eventClass, boolean vetoed) {
+        if (recording == null) {
+            return;
+        }
+        DispatchEvent dispatch = (DispatchEvent) recording;
+        dispatch.end();
+        if (dispatch.shouldCommit()) {
+            dispatch.eventClass = eventClass;
+            dispatch.vetoed = vetoed;
+            dispatch.commit();
+        }
+    }
+
+    @Override
+    Object beginHandle() {
+        if (!HANDLE.isEnabled()) {
+            return null;
+        }
+        HandleEvent recording = new HandleEvent();
+        recording.begin();
+        return recording;
+    }
+
+    @Override
+    void endHandle(Object recording, Object event, EventHandler handler, boolean vetoed, Throwable failure) {
+        if (recording == null) {
+            return;
+        }
+        HandleEvent handle = (HandleEvent) recording;
+        handle.end();
+        if (handle.shouldCommit()) {
+            handle.eventClass = event.getClass();
+            handle.listenerClass = handler.getMethod().getDeclaringClass();
+            handle.method = handler.getMethod().getName();
+            handle.vetoed = vetoed;
+            if (failure != null) {
+                handle.exceptionClass = failure.getClass();
+                handle.exceptionMessage = failure.getMessage();
+            }
+            handle.commit();
+        }
+    }
+
+    @Name("nl.javadude.t2bus.Post")
+    @Label("Event Post")
+    @Description("An event posted to a T2Bus, including the dispatch of the events it queued")
+    @Category("T2Bus")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class PostEvent extends Event {
+        @Label("Event Class")
+        Class<?> eventClass;
+
+        @Label("Dead")
+        @Description("Whether no handler accepted the event")
+        boolean dead;
+    }
+
+    @Name("nl.javadude.t2bus.Dispatch")
+    @Label("Event Dispatch")
+    @Description("An event offered to its vetoers, and delivered to its handlers if not vetoed")
+    @Category("T2Bus")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class DispatchEvent extends Event {
+        @Label("Event Class")
+        Class<?> eventClass;
+
+        @Label("Vetoed")
+        boolean vetoed;
+    }
+
+    @Name("nl.javadude.t2bus.Handle")
+    @Label("Handler Call")
+    @Description("An event handed to one handler or vetoer")
+    @Category("T2Bus")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class HandleEvent extends Event {
+        @Label("Event Class")
+        Class<?> eventClass;
+
+        @Label("Listener Class")
+        Class<?> listenerClass;
+
+        @Label("Method")
+        String method;
+
+        @Label("Vetoed")
+        @Description("Whether the handler vetoed the event")
+        boolean vetoed;
+
+        @Label("Exception Class")
+        Class<?> exceptionClass;
+
+        @Label("Exception Message")
+        String exceptionMessage;
+    }
+}
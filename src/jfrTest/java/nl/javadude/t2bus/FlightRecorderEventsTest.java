@@ -0,0 +1,90 @@
+package nl.javadude.t2bus;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Test case for the Java Flight Recorder events of the bus.
+ */
+public class FlightRecorderEventsTest {
+    private final T2Bus bus = new T2Bus("test-bus");
+
+    @Before
+    public void setUp() {
+        assumeTrue(FlightRecorderEvents.isAvailable());
+    }
+
+    @Test
+    public void shouldRecordPostsDispatchesAndHandlerCalls() throws IOException {
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            public void veto(String s) throws VetoException {
+                if (s.equals("veto")) {
+                    throw new VetoException(s);
+                }
+            }
+        });
+        bus.register(new Object() {
+            @Subscribe
+            public void fail(String s) {
+                throw new IllegalStateException(s);
+            }
+        });
+
+        Recording recording = new Recording();
+        recording.enable("nl.javadude.t2bus.Post");
+        recording.enable("nl.javadude.t2bus.Dispatch");
+        recording.enable("nl.javadude.t2bus.Handle");
+        recording.start();
+        bus.post("pass");
+        bus.post("veto");
+        recording.stop();
+
+        List<RecordedEvent> posts = new ArrayList<RecordedEvent>();
+        List<RecordedEvent> dispatches = new ArrayList<RecordedEvent>();
+        List<RecordedEvent> handles = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : readEvents(recording)) {
+            String name = event.getEventType().getName();
+            if (name.equals("nl.javadude.t2bus.Post")) {
+                posts.add(event);
+            } else if (name.equals("nl.javadude.t2bus.Dispatch")) {
+                dispatches.add(event);
+            } else if (name.equals("nl.javadude.t2bus.Handle")) {
+                handles.add(event);
+            }
+        }
+
+        assertThat(posts, hasSize(2));
+        assertThat(dispatches, hasSize(2));
+        assertThat(dispatches.get(1).getBoolean("vetoed"), equalTo(true));
+        // The vetoer and the failing handler for the first event, the vetoer for the second.
+        assertThat(handles, hasSize(3));
+        assertThat(handles.get(1).getString("method"), equalTo("fail"));
+        assertThat(handles.get(1).getClass("exceptionClass").getName(), equalTo(IllegalStateException.class.getName()));
+        assertThat(handles.get(2).getBoolean("vetoed"), equalTo(true));
+    }
+
+    private static List<RecordedEvent> readEvents(Recording recording) throws IOException {
+        File file = File.createTempFile("t2bus", ".jfr");
+        try {
+            recording.dump(file.toPath());
+            return RecordingFile.readAllEvents(file.toPath());
+        } finally {
+            recording.close();
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package nl.javadude.t2bus.benchmark;
+
+import nl.javadude.t2bus.AllowConcurrentEvents;
+import nl.javadude.t2bus.QueueEvents;
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures several threads posting to a single handler that is serialized
+ * with a lock, serialized through a mailbox ({@link QueueEvents}), or allowed
+ * to run concurrently ({@link AllowConcurrentEvents}).
+ * <p/>
+ * <p>With a mailbox, the thread that drains it keeps draining as long as the
+ * others keep posting, while JMH keeps the others posting until every thread
+ * finished its iteration.  The "queued" handler therefore only terminates
+ * without synchronized iterations: {@code -p handler=queued -si false}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContendedHandlerBenchmark {
+    @Param({"synchronized", "concurrent"})
+    public String handler;
+
+    private T2Bus bus;
+
+    @Setup
+    public void setUp() {
+        bus = new T2Bus("benchmark");
+        if ("queued".equals(handler)) {
+            bus.register(new QueuedListener());
+        } else if ("concurrent".equals(handler)) {
+            bus.register(new ConcurrentListener());
+        } else {
+            bus.register(new SynchronizedListener());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void postFromFourThreads() {
+        bus.post("event");
+    }
+
+    public static class SynchronizedListener {
+        @Subscribe
+        public void handle(String event) {
+            Blackhole.consumeCPU(50);
+        }
+    }
+
+    public static class QueuedListener {
+        @Subscribe
+        @QueueEvents
+        public void handle(String event) {
+            Blackhole.consumeCPU(50);
+        }
+    }
+
+    public static class ConcurrentListener {
+        @Subscribe
+        @AllowConcurrentEvents
+        public void handle(String event) {
+            Blackhole.consumeCPU(50);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package nl.javadude.t2bus.benchmark;
+
+import nl.javadude.t2bus.DeadEvent;
+import nl.javadude.t2bus.EventHandler;
+import nl.javadude.t2bus.EventHandlerStrategy;
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import nl.javadude.t2bus.VetoException;
+import nl.javadude.t2bus.VetoResult;
+import nl.javadude.t2bus.event.strategy.LoggingEventHandlerStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures posting on the synchronous {@link T2Bus} as the number of handlers
+ * of the event grows, and the cost of events that are vetoed, posted by
+ * handlers, or not handled at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+    /**
+     * Number of handlers of the posted events.
+     */
+    @Param({"1", "10", "100"})
+    public int handlers;
+
+    /**
+     * Number of events a handler posts before the posted event is complete.
+     */
+    private static final int REENTRANT_DEPTH = 10;
+
+    private static final EventHandlerStrategy QUIET_VETOES = new LoggingEventHandlerStrategy() {
+        @Override
+        protected boolean handleVetoException(Object event, EventHandler wrapper, VetoException e) {
+            return false;
+        }
+
+        @Override
+        protected boolean handleVetoResult(Object event, EventHandler wrapper, VetoResult result) {
+            return false;
+        }
+    };
+
+    private T2Bus bus;
+
+    @Setup
+    public void setUp() {
+        bus = new T2Bus("benchmark");
+        for (int i = 0; i < handlers; i++) {
+            bus.register(new Listener());
+        }
+        bus.register(new Vetoer());
+        bus.register(new ReturningVetoer());
+        bus.register(new Reposter(bus));
+    }
+
+    /**
+     * An event that passes the vetoer, and reaches all handlers.
+     */
+    @Benchmark
+    public void post() {
+        bus.post("event");
+    }
+
+    /**
+     * An event that is vetoed before it reaches any handler.  The default
+     * strategy logs each veto, which would dominate the measurement.
+     */
+    @Benchmark
+    public void postVetoed() {
+        bus.post(Vetoer.VETOED, QUIET_VETOES);
+    }
+
+    /**
+     * An event that is vetoed by a vetoer that returns its decision, rather than
+     * throwing a {@link VetoException}.
+     */
+    @Benchmark
+    public void postVetoedByResult() {
+        bus.post(ReturningVetoer.VETOED, QUIET_VETOES);
+    }
+
+    /**
+     * An event that handlers post {@value #REENTRANT_DEPTH} more events for,
+     * which are queued until the posted event is dispatched.
+     */
+    @Benchmark
+    public void postReentrant() {
+        bus.post(new Repost(REENTRANT_DEPTH));
+    }
+
+    /**
+     * An event without handlers, which is reposted as a {@link DeadEvent}
+     * without handlers either.
+     */
+    @Benchmark
+    public void postDead() {
+        bus.post(1L);
+    }
+
+    public static class Listener {
+        @Subscribe
+        public void handle(String event) {
+            Blackhole.consumeCPU(10);
+        }
+    }
+
+    public static class Vetoer {
+        static final String VETOED = "vetoed";
+
+        @Subscribe(canVeto = true)
+        public void veto(String event) throws VetoException {
+            if (event == VETOED) {
+                throw new VetoException();
+            }
+        }
+    }
+
+    public static class ReturningVetoer {
+        static final String VETOED = "vetoed by result";
+
+        @Subscribe(canVeto = true)
+        public boolean passes(String event) {
+            return event != VETOED;
+        }
+    }
+
+    public static class Repost {
+        final int remaining;
+
+        Repost(int remaining) {
+            this.remaining = remaining;
+        }
+    }
+
+    public static class Reposter {
+        private final T2Bus bus;
+
+        Reposter(T2Bus bus) {
+            this.bus = bus;
+        }
+
+        @Subscribe
+        public void handle(Repost event) {
+            if (event.remaining > 0) {
+                bus.post(new Repost(event.remaining - 1));
+            }
+        }
+    }
+}
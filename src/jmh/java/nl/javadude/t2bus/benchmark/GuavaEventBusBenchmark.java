@@ -0,0 +1,74 @@
+package nl.javadude.t2bus.benchmark;
+
+import com.google.common.eventbus.EventBus;
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting to the synchronous {@link T2Bus} with posting to Guava's
+ * {@link EventBus}, which it descends from, with the same listeners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GuavaEventBusBenchmark {
+    @Param({"1", "10"})
+    public int listeners;
+
+    private final Object event = "event";
+
+    private T2Bus t2Bus;
+    private EventBus eventBus;
+
+    @Setup
+    public void setUp() {
+        t2Bus = new T2Bus("benchmark");
+        eventBus = new EventBus("benchmark");
+        for (int i = 0; i < listeners; i++) {
+            Listener listener = new Listener();
+            t2Bus.register(listener);
+            eventBus.register(listener);
+        }
+    }
+
+    @Benchmark
+    public void t2Bus() {
+        t2Bus.post(event);
+    }
+
+    @Benchmark
+    public void guavaEventBus() {
+        eventBus.post(event);
+    }
+
+    /**
+     * Listens on both buses, with the annotations of each.
+     */
+    public static class Listener {
+        @Subscribe
+        @com.google.common.eventbus.Subscribe
+        public void handle(String event) {
+        }
+
+        @Subscribe
+        @com.google.common.eventbus.Subscribe
+        public void handle(Object event) {
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package nl.javadude.t2bus.benchmark;
+
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures posting events whose classes have a deep superclass chain or many
+ * interfaces, with a handler for every type in the hierarchy, and for the
+ * root type only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchyBenchmark {
+    @Param({"flat", "deep", "wide"})
+    public String hierarchy;
+
+    @Param({"true", "false"})
+    public boolean handlerPerType;
+
+    private T2Bus bus;
+
+    private Object event;
+
+    @Setup
+    public void setUp() {
+        bus = new T2Bus("benchmark");
+        if ("deep".equals(hierarchy)) {
+            event = new Depth5();
+        } else if ("wide".equals(hierarchy)) {
+            event = new Wide();
+        } else {
+            event = new Flat();
+        }
+        bus.register(new RootListener());
+        if (handlerPerType) {
+            bus.register(new TypeListeners());
+        }
+    }
+
+    @Benchmark
+    public void post() {
+        bus.post(event);
+    }
+
+    public static class Flat {
+    }
+
+    public static class Depth1 {
+    }
+
+    public static class Depth2 extends Depth1 {
+    }
+
+    public static class Depth3 extends Depth2 {
+    }
+
+    public static class Depth4 extends Depth3 {
+    }
+
+    public static class Depth5 extends Depth4 {
+    }
+
+    public interface A {
+    }
+
+    public interface B {
+    }
+
+    public interface C {
+    }
+
+    public interface D {
+    }
+
+    public interface E extends A, B {
+    }
+
+    public static class Wide implements C, D, E {
+    }
+
+    public static class RootListener {
+        @Subscribe
+        public void handle(Object event) {
+        }
+    }
+
+    public static class TypeListeners {
+        @Subscribe
+        public void handle(Flat event) {
+        }
+
+        @Subscribe
+        public void handle(Depth1 event) {
+        }
+
+        @Subscribe
+        public void handle(Depth2 event) {
+        }
+
+        @Subscribe
+        public void handle(Depth3 event) {
+        }
+
+        @Subscribe
+        public void handle(Depth4 event) {
+        }
+
+        @Subscribe
+        public void handle(Depth5 event) {
+        }
+
+        @Subscribe
+        public void handle(A event) {
+        }
+
+        @Subscribe
+        public void handle(B event) {
+        }
+
+        @Subscribe
+        public void handle(C event) {
+        }
+
+        @Subscribe
+        public void handle(D event) {
+        }
+
+        @Subscribe
+        public void handle(E event) {
+        }
+
+        @Subscribe
+        public void handle(Wide event) {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package nl.javadude.t2bus.benchmark;
+
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting a batch of events of a few classes one by one with posting
+ * them with a single call to {@link T2Bus#postAll(Iterable)}.  The events come
+ * in runs of {@value #RUN_LENGTH} of the same class, as when a chunk of a file
+ * is read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostAllBenchmark {
+    private static final int BATCH_SIZE = 1000;
+    private static final int RUN_LENGTH = 100;
+
+    private final List<Object> events = new ArrayList<Object>(BATCH_SIZE);
+
+    private T2Bus bus;
+
+    @Setup
+    public void setUp() {
+        bus = new T2Bus("benchmark");
+        bus.register(new Listener());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            switch ((i / RUN_LENGTH) % 3) {
+                case 0:
+                    events.add("event");
+                    break;
+                case 1:
+                    events.add(i);
+                    break;
+                default:
+                    events.add((long) i);
+            }
+        }
+    }
+
+    @Benchmark
+    public void postEach() {
+        for (Object event : events) {
+            bus.post(event);
+        }
+    }
+
+    @Benchmark
+    public void postAll() {
+        bus.postAll(events);
+    }
+
+    public static class Listener {
+        @Subscribe
+        public void handle(Object event) {
+        }
+
+        @Subscribe
+        public void handle(Number event) {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package nl.javadude.t2bus.benchmark;
+
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures registering and unregistering a listener on a bus that already has
+ * many listeners for the same event type, with and without posting an event
+ * in between.  The {@code churn} group measures posting while another thread
+ * keeps registering and unregistering listeners for the posted type, and
+ * {@link #registerEachAfterPost()} registers many listeners one at a time for
+ * a type that has already been posted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationBenchmark {
+    /**
+     * Number of listeners registered before measuring.
+     */
+    @Param({"0", "1000", "100000"})
+    public int registered;
+
+    /**
+     * Number of listeners registered one at a time by {@link #registerEachAfterPost()}.
+     */
+    private static final int REGISTERED_EACH = 1000;
+
+    private T2Bus bus;
+
+    @Setup
+    public void setUp() {
+        bus = new T2Bus("benchmark");
+        for (int i = 0; i < registered; i++) {
+            bus.register(new Listener());
+        }
+    }
+
+    @Benchmark
+    public void registerAndUnregister() {
+        Listener listener = new Listener();
+        bus.register(listener);
+        bus.unregister(listener);
+    }
+
+    @Benchmark
+    public void registerPostAndUnregister() {
+        Listener listener = new Listener();
+        bus.register(listener);
+        bus.post("event");
+        bus.unregister(listener);
+    }
+
+    @Benchmark
+    public void registerEachAfterPost() {
+        T2Bus fresh = new T2Bus("benchmark");
+        fresh.post("event");
+        for (int i = 0; i < REGISTERED_EACH; i++) {
+            fresh.register(new Listener());
+        }
+        fresh.post("event");
+    }
+
+    @Benchmark
+    @Group("churn")
+    public void register() {
+        registerAndUnregister();
+    }
+
+    @Benchmark
+    @Group("churn")
+    public void post() {
+        bus.post("event");
+    }
+
+    public static class Listener {
+        @Subscribe
+        public void handle(String event) {
+        }
+    }
+}
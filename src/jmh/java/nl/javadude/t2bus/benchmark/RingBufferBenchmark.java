@@ -0,0 +1,92 @@
+package nl.javadude.t2bus.benchmark;
+
+import nl.javadude.t2bus.RingBufferT2Bus;
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import nl.javadude.t2bus.WaitStrategies;
+import nl.javadude.t2bus.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares posting to the synchronous {@link T2Bus} with publishing to a
+ * {@link RingBufferT2Bus} using each of the wait strategies, with one and with
+ * several posting threads.
+ * <p/>
+ * <p>The ring is small compared to the number of events posted per iteration,
+ * so the throughput of the ring buffer bus is bounded by its dispatcher.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RingBufferBenchmark {
+    @Param({"synchronous", "busySpin", "yielding", "parking"})
+    public String mode;
+
+    private final Object event = "event";
+
+    private T2Bus bus;
+
+    @Setup
+    public void setUp() {
+        if ("synchronous".equals(mode)) {
+            bus = new T2Bus("benchmark");
+        } else {
+            bus = new RingBufferT2Bus("benchmark", 1024, waitStrategy(mode));
+        }
+        bus.register(new Listener());
+        bus.register(new Listener());
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        if (bus instanceof RingBufferT2Bus) {
+            ((RingBufferT2Bus) bus).shutdown();
+            ((RingBufferT2Bus) bus).awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public void post() {
+        bus.post(event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void postFromFourThreads() {
+        bus.post(event);
+    }
+
+    private static WaitStrategy waitStrategy(String mode) {
+        if ("busySpin".equals(mode)) {
+            return WaitStrategies.busySpin();
+        } else if ("yielding".equals(mode)) {
+            return WaitStrategies.yielding();
+        }
+        return WaitStrategies.parking(TimeUnit.MICROSECONDS.toNanos(50));
+    }
+
+    public static class Listener {
+        @Subscribe
+        public void handle(String event) {
+            Blackhole.consumeCPU(20);
+        }
+    }
+}
@@ -26,13 +26,35 @@ import java.lang.annotation.Target;
  * indicates that EventBus may invoke the event handler simultaneously from
  * multiple threads.
  *
+ * <p>The number of simultaneous invocations can be bounded with
+ * {@link #maxConcurrency()}, for instance for handlers that use a pool of
+ * connections:
+ * <pre>
+ * &#64;Subscribe
+ * &#64;AllowConcurrentEvents(maxConcurrency = 4, whenSaturated = SaturationPolicy.QUEUE)
+ * public void store(Order order) { ... }
+ * </pre>
+ *
  * <p>This does not mark the method as an event handler, and so should be used
  * in combination with {@link Subscribe}.
  *
  * @author Cliff Biffle
+ * @author Jeroen van Erp, jeroen@javadude.nl
  * @since 10.0
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface AllowConcurrentEvents {
+    /**
+     * The maximum number of simultaneous invocations of the method, unbounded
+     * if not positive.  A bounded method cannot also have {@link BatchEvents},
+     * {@link ConflateEvents} or {@link CacheVetoes}.
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * What happens to an event when {@link #maxConcurrency()} invocations are
+     * already in progress.  Handlers that can veto cannot queue events.
+     */
+    SaturationPolicy whenSaturated() default SaturationPolicy.BLOCK;
 }
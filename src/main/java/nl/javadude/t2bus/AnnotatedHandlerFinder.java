@@ -16,24 +16,66 @@
 
 package nl.javadude.t2bus;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Set;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * A {@link com.google.common.eventbus.HandlerFindingStrategy} for collecting all event handler methods that are marked with
  * the {@link Subscribe} annotation.
+ * <p/>
+ * <p>The handler methods of each listener class are looked up once, and
+ * cached, so registering further instances of the class only creates their
+ * {@link EventHandler}s.  The cache does not keep listener classes from being
+ * unloaded: it holds classes weakly and its entries softly, as an entry refers
+ * to the methods, and thereby to the class, of its key.
+ * <p/>
+ * <p>Classes that have a {@link SubscriberIndex}, generated at compile time,
+ * are not scanned for handler methods, and those are called through the
+ * invokers of the index.
  *
  * @author Cliff Biffle
  * @author Louis Wasserman
  * @author Jeroen van Erp, jeroen@javadude.nl
  */
 class AnnotatedHandlerFinder implements HandlerFindingStrategy {
+    /**
+     * The handler methods per listener class.
+     */
+    private static final LoadingCache<Class<?>, List<HandlerMethod>> handlerMethodsCache =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .softValues()
+                    .build(new CacheLoader<Class<?>, List<HandlerMethod>>() {
+                        @Override
+                        public List<HandlerMethod> load(Class<?> listenerClass) throws Exception {
+                            return findHandlerMethods(listenerClass);
+                        }
+                    });
+
     /**
      * {@inheritDoc}
      * <p/>
@@ -42,56 +84,188 @@ class AnnotatedHandlerFinder implements HandlerFindingStrategy {
     @Override
     public Multimap<Class<?>, EventHandler> findAllHandlers(Object listener) {
         Multimap<Class<?>, EventHandler> methodsInListener = HashMultimap.create();
-        Class<?> clazz = listener.getClass();
-        Set<? extends Class<?>> supers = TypeToken.of(clazz).getTypes().rawTypes();
+        for (HandlerMethod handlerMethod : getHandlerMethods(listener.getClass())) {
+            methodsInListener.put(handlerMethod.eventType, handlerMethod.newHandler(listener));
+        }
+        return methodsInListener;
+    }
 
-        for (Method method : clazz.getMethods()) {
-            /*
-            * Iterate over each distinct method of {@code clazz}, checking if it is annotated with
-            * @Subscribe by any of the superclasses or superinterfaces that declare it.
-            */
-            for (Class<?> c : supers) {
-                try {
-                    Method m = c.getMethod(method.getName(), method.getParameterTypes());
-                    if (m.isAnnotationPresent(Subscribe.class)) {
-                        Class<?>[] parameterTypes = method.getParameterTypes();
-                        checkArgument(parameterTypes.length == 1, "Method " + method
-                                    + " has @Subscribe annotation, but requires " + parameterTypes.length
-                                    + " arguments.  Event handler methods must require a single argument.");
-                        Class<?> eventType = parameterTypes[0];
-                        EventHandler handler = makeHandler(listener, method, m.getAnnotation(Subscribe.class).canVeto());
-
-                        methodsInListener.put(eventType, handler);
-                        break;
+    private static List<HandlerMethod> getHandlerMethods(Class<?> listenerClass) {
+        try {
+            return handlerMethodsCache.getUnchecked(listenerClass);
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Finds the handler methods of {@code clazz} in its {@link SubscriberIndex},
+     * or scans the class reflectively if it has none.
+     *
+     * @param clazz the listener class.
+     * @return the handler methods of {@code clazz}.
+     */
+    private static List<HandlerMethod> findHandlerMethods(Class<?> clazz) {
+        SubscriberIndex index = loadIndex(clazz);
+        if (index != null) {
+            try {
+                return indexedHandlerMethods(clazz, index);
+            } catch (NoSuchMethodException e) {
+                logger.warn(index.getClass().getName() + " is out of date, scanning " + clazz + " instead", e);
+            }
+        }
+        return scanHandlerMethods(clazz);
+    }
+
+    /**
+     * @return the {@link SubscriberIndex} generated for {@code clazz}, or {@code null} if it has none.
+     */
+    static SubscriberIndex loadIndex(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        Class<?> indexClass;
+        try {
+            indexClass = Class.forName(clazz.getName() + SubscriberIndex.CLASS_NAME_SUFFIX, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        try {
+            return (SubscriberIndex) indexClass.getConstructor().newInstance();
+        } catch (Exception e) {
+            logger.warn("Could not use " + indexClass.getName() + ", scanning " + clazz + " instead", e);
+            return null;
+        }
+    }
+
+    private static List<HandlerMethod> indexedHandlerMethods(Class<?> clazz, SubscriberIndex index) throws NoSuchMethodException {
+        ImmutableList.Builder<HandlerMethod> handlerMethods = ImmutableList.builder();
+        for (SubscriberInfo subscriber : index.getSubscribers()) {
+            Method method = clazz.getMethod(subscriber.methodName, subscriber.parameterType);
+            handlerMethods.add(toHandlerMethod(method, subscriber.canVeto, subscriber.priority, subscriber.allowConcurrentEvents));
+        }
+        return handlerMethods.build();
+    }
+
+    /**
+     * Finds each distinct public method of {@code clazz} that is annotated with
+     * {@link Subscribe} by any of the superclasses or superinterfaces that
+     * declare it, using the annotation of the most specific of those.
+     *
+     * @param clazz the listener class.
+     * @return the handler methods of {@code clazz}.
+     */
+    private static List<HandlerMethod> scanHandlerMethods(Class<?> clazz) {
+        Map<MethodSignature, Subscribe> annotated = Maps.newHashMap();
+        for (Class<?> c : TypeToken.of(clazz).getTypes().rawTypes()) {
+            for (Method m : c.getDeclaredMethods()) {
+                if (Modifier.isPublic(m.getModifiers()) && m.isAnnotationPresent(Subscribe.class)) {
+                    MethodSignature signature = new MethodSignature(m);
+                    if (!annotated.containsKey(signature)) {
+                        annotated.put(signature, m.getAnnotation(Subscribe.class));
                     }
-                } catch (NoSuchMethodException ignored) {
-                    // Move on.
                 }
             }
         }
-        return methodsInListener;
+
+        ImmutableList.Builder<HandlerMethod> handlerMethods = ImmutableList.builder();
+        if (annotated.isEmpty()) {
+            return handlerMethods.build();
+        }
+        for (Method method : clazz.getMethods()) {
+            Subscribe subscribe = annotated.get(new MethodSignature(method));
+            if (subscribe != null) {
+                handlerMethods.add(toHandlerMethod(method, subscribe.canVeto(), subscribe.priority(), methodIsDeclaredThreadSafe(method)));
+            }
+        }
+        return handlerMethods.build();
+    }
+
+    private static HandlerMethod toHandlerMethod(Method method, boolean canVeto, int priority, boolean threadSafe) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        checkArgument(parameterTypes.length == 1, "Method " + method
+                + " has @Subscribe annotation, but requires " + parameterTypes.length
+                + " arguments.  Event handler methods must require a single argument.");
+        Class<?> eventType = parameterTypes[0];
+        BatchEvents batch = method.getAnnotation(BatchEvents.class);
+        ConflateEvents conflate = method.getAnnotation(ConflateEvents.class);
+        CacheVetoes vetoCache = method.getAnnotation(CacheVetoes.class);
+        boolean queued = method.isAnnotationPresent(QueueEvents.class);
+        AllowConcurrentEvents concurrency = threadSafe ? method.getAnnotation(AllowConcurrentEvents.class) : null;
+        int maxConcurrency = concurrency == null ? 0 : concurrency.maxConcurrency();
+        SaturationPolicy saturationPolicy = concurrency == null ? SaturationPolicy.BLOCK : concurrency.whenSaturated();
+        if (maxConcurrency > 0) {
+            checkArgument(batch == null && conflate == null && vetoCache == null, "Method " + method
+                    + " has a maximum concurrency, but also @BatchEvents, @ConflateEvents or @CacheVetoes.  Only one of them can be used.");
+            checkArgument(!canVeto || saturationPolicy != SaturationPolicy.QUEUE, "Method " + method
+                    + " queues events when its maximum concurrency is reached, but can veto.  Vetoing event handler methods cannot queue events.");
+        }
+        checkArgument(batch == null || conflate == null, "Method " + method
+                + " has both @BatchEvents and @ConflateEvents annotations.  Only one of them can be used.");
+        if (queued) {
+            checkArgument(batch == null && conflate == null, "Method " + method
+                    + " has @QueueEvents annotation, but also @BatchEvents or @ConflateEvents.  Only one of them can be used.");
+            checkArgument(!threadSafe, "Method " + method
+                    + " has both @QueueEvents and @AllowConcurrentEvents annotations.  Queued event handler methods are never invoked concurrently.");
+            checkArgument(!canVeto, "Method " + method + " has @QueueEvents annotation, but can veto.  Queued event handler methods cannot veto.");
+        }
+        KeyExtractor<Object> keyExtractor = null;
+        if (conflate != null) {
+            checkArgument(!canVeto, "Method " + method + " has @ConflateEvents annotation, but can veto.  Conflating event handler methods cannot veto.");
+            keyExtractor = newKeyExtractor(method, ConflateEvents.class, conflate.by());
+        } else if (batch != null) {
+            checkArgument(!canVeto, "Method " + method + " has @BatchEvents annotation, but can veto.  Batching event handler methods cannot veto.");
+            eventType = batchElementType(method);
+        }
+        KeyExtractor<Object> vetoKeyExtractor = null;
+        if (vetoCache != null) {
+            checkArgument(canVeto, "Method " + method + " has @CacheVetoes annotation, but cannot veto.  Only the decisions of vetoing event handler methods can be cached.");
+            vetoKeyExtractor = newKeyExtractor(method, CacheVetoes.class, vetoCache.by());
+        }
+        method.setAccessible(true);
+        return new HandlerMethod(method, eventType, canVeto, priority, threadSafe, maxConcurrency, saturationPolicy,
+                batch, keyExtractor, queued, vetoCache, vetoKeyExtractor);
+    }
+
+    /**
+     * Determines the type of events received in batches by {@code method}, which
+     * is the element type of its {@link List} parameter.
+     *
+     * @param method batching event handler method.
+     * @return the raw element type.
+     */
+    private static Class<?> batchElementType(Method method) {
+        Type parameterType = method.getGenericParameterTypes()[0];
+        checkArgument(method.getParameterTypes()[0].isAssignableFrom(ArrayList.class) && parameterType instanceof ParameterizedType,
+                "Method " + method + " has @BatchEvents annotation, but does not take a List of events.");
+        return TypeToken.of(((ParameterizedType) parameterType).getActualTypeArguments()[0]).getRawType();
     }
 
     /**
-     * Creates an {@code EventHandler} for subsequently calling {@code method} on
-     * {@code listener}.
-     * Selects an EventHandler implementation based on the annotations on
-     * {@code method}.
+     * Instantiates the {@link KeyExtractor} of a conflating event handler method,
+     * or of a vetoing method whose decisions are cached.
      *
-     * @param listener object bearing the event handler method.
-     * @param method   the event handler method to wrap in an EventHandler.
-     * @param canVeto whether the event handler method can veto the event.
-     * @return an EventHandler that will call {@code method} on {@code listener}
-     *         when invoked.
+     * @param method         event handler method.
+     * @param annotation     the annotation that names the key extractor.
+     * @param extractorClass the class of the key extractor.
+     * @return a new key extractor.
      */
-    private static EventHandler makeHandler(Object listener, Method method, boolean canVeto) {
-        EventHandler wrapper;
-        if (methodIsDeclaredThreadSafe(method)) {
-            wrapper = new EventHandler(listener, method, canVeto);
-        } else {
-            wrapper = new SynchronizedEventHandler(listener, method, canVeto);
-        }
-        return wrapper;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static KeyExtractor<Object> newKeyExtractor(Method method, Class<? extends Annotation> annotation,
+                                                        Class<? extends KeyExtractor> extractorClass) {
+        try {
+            Constructor<? extends KeyExtractor> constructor = extractorClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Method " + method + " has @" + annotation.getSimpleName() + " annotation, but " + extractorClass
+                    + " has no no-argument constructor.", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("Could not create " + extractorClass + " for method " + method, e.getCause());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Could not create " + extractorClass + " for method " + method, e);
+        }
     }
 
     /**
@@ -105,4 +279,34 @@ class AnnotatedHandlerFinder implements HandlerFindingStrategy {
     private static boolean methodIsDeclaredThreadSafe(Method method) {
         return method.getAnnotation(AllowConcurrentEvents.class) != null;
     }
+
+    /**
+     * The name and parameter types of a method, which identify the method among
+     * those of a class and its supertypes.
+     */
+    private static final class MethodSignature {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+
+        MethodSignature(Method method) {
+            this.name = method.getName();
+            this.parameterTypes = method.getParameterTypes();
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode() * 31 + Arrays.hashCode(parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof MethodSignature)) {
+                return false;
+            }
+            MethodSignature other = (MethodSignature) obj;
+            return name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnotatedHandlerFinder.class);
 }
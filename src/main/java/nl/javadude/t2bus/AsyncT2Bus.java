@@ -0,0 +1,330 @@
+package nl.javadude.t2bus;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link T2Bus} that delivers events to its handlers on an {@link Executor}.
+ * <p/>
+ * <p>Vetoers are still called on the posting thread, before {@code post}
+ * returns, so that {@link Subscribe#canVeto()} handlers keep gating delivery.
+ * Only once an event has passed all vetoers, it is added to the mailbox of
+ * each of the non-vetoing handlers, to be delivered on the executor using the
+ * {@link EventHandlerStrategy} of the posting thread.
+ * <p/>
+ * <p>Each mailbox is drained by at most one task at a time, so a handler
+ * receives its events one after another, in the order in which they passed
+ * the vetoers, even on an executor with many threads.  Different handlers do
+ * run in parallel.  This also holds for handlers marked
+ * {@link AllowConcurrentEvents}, which therefore gain nothing on this bus.
+ * <p/>
+ * <p>The bus can be shut down, after which it no longer accepts events, and
+ * {@link #awaitTermination(long, TimeUnit)} bounds the time waited for the
+ * deliveries that are still in flight. The executor itself is owned by the
+ * caller, and is not shut down by the bus.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public class AsyncT2Bus extends T2Bus {
+    private final Executor executor;
+
+    /**
+     * Number of posts in progress and deliveries handed to the executor that
+     * have not yet finished.
+     */
+    private final AtomicInteger deliveriesInFlight = new AtomicInteger();
+
+    private final Object terminationLock = new Object();
+
+    private final LoadingCache<EventHandler, HandlerMailbox> mailboxes = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<EventHandler, HandlerMailbox>() {
+                @Override
+                public HandlerMailbox load(EventHandler handler) {
+                    return new HandlerMailbox();
+                }
+            });
+
+    private volatile boolean shutdown;
+
+    /**
+     * Creates a new AsyncT2Bus named "default" that delivers events on {@code executor}.
+     *
+     * @param executor executor used to deliver events to non-vetoing handlers.
+     */
+    public AsyncT2Bus(Executor executor) {
+        this("default", executor);
+    }
+
+    /**
+     * Creates a new AsyncT2Bus with the given {@code identifier}, that delivers
+     * events on {@code executor}.
+     *
+     * @param identifier a brief name for this bus, for logging purposes.  Should
+     *                   be a valid Java identifier.
+     * @param executor   executor used to deliver events to non-vetoing handlers.
+     */
+    public AsyncT2Bus(String identifier, Executor executor) {
+        super(identifier);
+        this.executor = checkNotNull(executor, "executor cannot be null.");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this bus has been shut down.
+     */
+    @Override
+    public void post(Object event) {
+        beginPost(event);
+        try {
+            super.post(event);
+        } finally {
+            deliveryFinished();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this bus has been shut down.
+     */
+    @Override
+    public void post(Object event, EventHandlerStrategy eventHandlerStrategy) {
+        beginPost(event);
+        try {
+            super.post(event, eventHandlerStrategy);
+        } finally {
+            deliveryFinished();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this bus has been shut down.
+     */
+    @Override
+    public void postAll(Iterable<?> events) {
+        beginPost(events);
+        try {
+            super.postAll(events);
+        } finally {
+            deliveryFinished();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this bus has been shut down.
+     */
+    @Override
+    public void postAll(Iterable<?> events, EventHandlerStrategy eventHandlerStrategy) {
+        beginPost(events);
+        try {
+            super.postAll(events, eventHandlerStrategy);
+        } finally {
+            deliveryFinished();
+        }
+    }
+
+    /**
+     * Stops accepting new events. Deliveries of events that were posted before
+     * continue; use {@link #awaitTermination(long, TimeUnit)} to wait for them.
+     * Pending batches of {@link BatchEvents} handlers are flushed on the calling
+     * thread, and batches collected afterwards are flushed as soon as they start.
+     */
+    public void shutdown() {
+        shutdown = true;
+        shutdownBatchFlusher();
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Waits until all deliveries handed to the executor have finished, or the
+     * timeout expires, whichever comes first.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the time unit of the timeout argument.
+     * @return {@code true} if no deliveries are in flight anymore, {@code false}
+     *         if the timeout expired first.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (terminationLock) {
+            while (deliveriesInFlight.get() > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(terminationLock, remaining);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void deliver(Object event, EventHandler[] handlers, EventHandlerStrategy strategy) {
+        for (int i = 0; i < handlers.length; i++) {
+            EventHandler handler = handlers[i];
+            if (deliversThroughMailbox(handler)) {
+                mailboxes.getUnchecked(handler).offer(new Delivery(event, handler, strategy));
+            } else {
+                execute(new Delivery(event, handler, strategy));
+            }
+        }
+    }
+
+    /**
+     * Whether the deliveries to {@code handler} are serialized through its
+     * mailbox, rather than each handed to the executor as a separate task.
+     * This is provided as an override point for subclasses.
+     *
+     * @return {@code true}, this bus keeps the events of every handler in order.
+     */
+    boolean deliversThroughMailbox(EventHandler handler) {
+        return true;
+    }
+
+    private void execute(final Delivery delivery) {
+        deliveriesInFlight.incrementAndGet();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        handle(delivery.event, delivery.handler, delivery.strategy);
+                    } finally {
+                        deliveryFinished();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deliveryFinished();
+            throw e;
+        }
+    }
+
+    private void deliveryFinished() {
+        if (deliveriesInFlight.decrementAndGet() == 0) {
+            synchronized (terminationLock) {
+                terminationLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Counts a post as in flight, unless this bus has been shut down.  The post
+     * is counted before checking, so that {@link #awaitTermination(long, TimeUnit)}
+     * also waits for the deliveries of a post that was accepted concurrently with
+     * {@link #shutdown()}.
+     */
+    private void beginPost(Object event) {
+        deliveriesInFlight.incrementAndGet();
+        if (shutdown) {
+            deliveryFinished();
+            throw new IllegalStateException("Cannot post event [" + event + "], the bus has been shut down.");
+        }
+    }
+
+    /**
+     * The deliveries to one handler that have not been handled yet.  The
+     * delivery that makes the mailbox non-empty hands it to the executor, which
+     * then handles deliveries until the mailbox is empty again.
+     */
+    private final class HandlerMailbox implements Runnable {
+        private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<Delivery>();
+
+        /**
+         * Number of deliveries added to the mailbox and not handled yet.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        void offer(Delivery delivery) {
+            deliveriesInFlight.incrementAndGet();
+            deliveries.offer(delivery);
+            if (pending.getAndIncrement() != 0) {
+                return;
+            }
+
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Nobody drains the mailbox, so drop the deliveries that were added to it meanwhile as well.
+                do {
+                    Delivery dropped = deliveries.poll();
+                    if (dropped != delivery) {
+                        logger.error("Dropped event " + dropped.event + " for handler " + dropped.handler
+                                + ", the executor rejected its delivery", e);
+                    }
+                    deliveryFinished();
+                } while (pending.decrementAndGet() != 0);
+                throw e;
+            }
+        }
+
+        /**
+         * Handles the deliveries in the mailbox until it is empty.  If the
+         * strategy of any delivery throws, the remaining deliveries are still
+         * handled before the first exception is rethrown.
+         */
+        @Override
+        public void run() {
+            Throwable failure = null;
+            do {
+                // Every delivery is offered before it is counted, so the mailbox is not empty.
+                Delivery delivery = deliveries.poll();
+                try {
+                    handle(delivery.event, delivery.handler, delivery.strategy);
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                } finally {
+                    deliveryFinished();
+                }
+            } while (pending.decrementAndGet() != 0);
+
+            if (failure != null) {
+                throw Throwables.propagate(failure);
+            }
+        }
+    }
+
+    /**
+     * An event to be delivered to a handler.  The mailbox of the handler does
+     * not refer to it, so that mailboxes of unregistered handlers can be
+     * collected once they are empty.
+     */
+    private static final class Delivery {
+        final Object event;
+        final EventHandler handler;
+        final EventHandlerStrategy strategy;
+
+        Delivery(Object event, EventHandler handler, EventHandlerStrategy strategy) {
+            this.event = event;
+            this.handler = handler;
+            this.strategy = strategy;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncT2Bus.class);
+}
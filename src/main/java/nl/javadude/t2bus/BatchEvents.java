@@ -0,0 +1,48 @@
+package nl.javadude.t2bus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an event handling method as receiving its events in batches.  The
+ * method takes a {@link java.util.List} of events instead of a single event, and
+ * is registered for the element type of that list:
+ * <pre>
+ * &#64;Subscribe
+ * &#64;BatchEvents(maxSize = 500, maxLatencyMillis = 20)
+ * public void insert(List&lt;Row&gt; rows) { ... }
+ * </pre>
+ * <p/>
+ * <p>The bus collects the events for the method, and calls it as soon as
+ * {@link #maxSize()} events have been collected, on the thread that delivers
+ * the last of them.  If fewer events arrive, the method is called with the
+ * events collected so far once the first of them has waited for
+ * {@link #maxLatencyMillis()}, on a flusher thread of the bus, using the default
+ * {@link EventHandlerStrategy} of the bus.  Events that were collected when the
+ * method is unregistered are still delivered when their latency budget expires.
+ * <p/>
+ * <p>Batches are passed to the method serially, unless it is also annotated with
+ * {@link AllowConcurrentEvents}.  The list belongs to the method once called.
+ * Batching handlers cannot veto events.
+ * <p/>
+ * <p>This does not mark the method as an event handler, and so should be used
+ * in combination with {@link Subscribe}.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface BatchEvents {
+    /**
+     * The maximum number of events passed to the method at once.
+     */
+    int maxSize() default 100;
+
+    /**
+     * The maximum time in milliseconds the first event of a batch waits for the
+     * batch to fill up, before the batch is passed to the method anyway.
+     */
+    long maxLatencyMillis() default 100;
+}
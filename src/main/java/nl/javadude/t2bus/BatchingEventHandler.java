@@ -0,0 +1,120 @@
+package nl.javadude.t2bus;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Collects the events for a {@link BatchEvents} handler method, and passes them
+ * to the method in batches.
+ * <p/>
+ * <p>A full batch is passed to the method by the thread that handles its last
+ * event.  The bus this handler is registered with flushes batches that do not
+ * fill up within their latency budget.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+class BatchingEventHandler extends EventHandler {
+    /**
+     * Calls the handler method with a batch of events.
+     */
+    private final EventHandler batchHandler;
+    private final int maxSize;
+    private final long maxLatencyMillis;
+
+    /**
+     * The batch being collected, {@code null} if no events are pending.
+     */
+    private List<Object> pending;
+
+    private volatile T2Bus bus;
+
+    /**
+     * Creates a new BatchingEventHandler to wrap {@code method} on
+     * {@code target}.
+     *
+     * @param target           object to which the method applies.
+     * @param method           handler method, taking a list of events.
+     * @param batchHandler     handler that calls {@code method} with a batch.
+     * @param maxSize          maximum number of events in a batch.
+     * @param maxLatencyMillis time after which a batch is flushed, even when not full.
+     */
+    BatchingEventHandler(Object target, Method method, EventHandler batchHandler, int maxSize, long maxLatencyMillis) {
+        super(target, method, false, batchHandler.getPriority());
+        checkArgument(maxSize > 0, "Method %s has a maximum batch size of %s, which is not positive.", method, maxSize);
+        checkArgument(maxLatencyMillis > 0, "Method %s has a maximum batch latency of %s ms, which is not positive.", method, maxLatencyMillis);
+        this.batchHandler = checkNotNull(batchHandler, "batchHandler cannot be null.");
+        this.maxSize = maxSize;
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    /**
+     * Binds this handler to the bus that flushes its expired batches.
+     */
+    void flushOn(T2Bus bus) {
+        this.bus = bus;
+    }
+
+    /**
+     * Adds {@code event} to the pending batch, and passes the batch to the
+     * handler method if it is full.
+     *
+     * @param event event to handle
+     * @return {@link VetoResult#PASSED}.
+     * @throws InvocationTargetException if the handler method throws.
+     * @throws VetoException             never, batching handlers cannot veto.
+     */
+    @Override
+    public VetoResult handleEventForResult(Object event) throws InvocationTargetException, VetoException {
+        List<Object> started = null;
+        List<Object> full = null;
+        synchronized (this) {
+            if (pending == null) {
+                pending = new ArrayList<Object>(Math.min(maxSize, 1024));
+                started = pending;
+            }
+            pending.add(event);
+            if (pending.size() >= maxSize) {
+                full = pending;
+                pending = null;
+            }
+        }
+
+        if (full != null) {
+            batchHandler.handleEventForResult(full);
+        } else if (started != null) {
+            bus.scheduleBatchFlush(this, started, maxLatencyMillis);
+        }
+        return VetoResult.PASSED;
+    }
+
+    /**
+     * Takes {@code batch} to be flushed, if it has not been passed to the
+     * handler method yet.
+     *
+     * @param batch a batch previously started by this handler.
+     * @return the batch, or {@code null} if it was already passed to the handler method.
+     */
+    synchronized List<Object> takeExpired(List<Object> batch) {
+        if (pending != batch) {
+            return null;
+        }
+        pending = null;
+        return batch;
+    }
+
+    EventHandler getBatchHandler() {
+        return batchHandler;
+    }
+
+    @Override
+    void holdTargetWeakly(Reference<?> reference) {
+        super.holdTargetWeakly(reference);
+        batchHandler.holdTargetWeakly(reference);
+    }
+}
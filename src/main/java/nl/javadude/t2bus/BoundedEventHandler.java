@@ -0,0 +1,130 @@
+package nl.javadude.t2bus;
+
+import com.google.common.base.Throwables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Wraps an {@link AllowConcurrentEvents} handler method that may be invoked by
+ * at most {@code maxConcurrency} threads at a time.
+ * <p/>
+ * <p>Each invocation takes a permit.  When none is free, the posting thread
+ * either waits for one, or leaves the event in a queue that the threads
+ * holding a permit deliver before they return theirs, depending on the
+ * {@link SaturationPolicy}.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+class BoundedEventHandler extends EventHandler {
+    private final Semaphore permits;
+    private final SaturationPolicy saturationPolicy;
+
+    /**
+     * Deliveries waiting for a permit, only used with {@link SaturationPolicy#QUEUE}.
+     */
+    private final Queue<Delivery> queued = new ConcurrentLinkedQueue<Delivery>();
+
+    /**
+     * Creates a new BoundedEventHandler to wrap {@code method} on
+     * {@code target}.
+     *
+     * @param target           object to which the method applies.
+     * @param method           handler method.
+     * @param vetoer           whether the method can veto events.
+     * @param priority         handlers with a higher priority are called first.
+     * @param maxConcurrency   maximum number of simultaneous invocations.
+     * @param saturationPolicy what to do with events when all permits are taken.
+     */
+    BoundedEventHandler(Object target, Method method, boolean vetoer, int priority, int maxConcurrency, SaturationPolicy saturationPolicy) {
+        super(target, method, vetoer, priority);
+        checkArgument(maxConcurrency > 0, "Method %s has a maximum concurrency of %s, which is not positive.", method, maxConcurrency);
+        checkArgument(!vetoer || saturationPolicy != SaturationPolicy.QUEUE, "Method %s can veto, but queues events when saturated.", method);
+        this.permits = new Semaphore(maxConcurrency);
+        this.saturationPolicy = checkNotNull(saturationPolicy, "saturationPolicy cannot be null.");
+    }
+
+    @Override
+    boolean dispatch(Object event, EventHandlerStrategy strategy) {
+        if (saturationPolicy == SaturationPolicy.BLOCK) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for a permit of handler " + this + ", not delivering event " + event);
+                return !isVetoer();
+            }
+            try {
+                return strategy.handle(event, this);
+            } finally {
+                permits.release();
+            }
+        }
+
+        if (!permits.tryAcquire()) {
+            queued.offer(new Delivery(event, strategy));
+            // All permit holders may have checked the queue before the offer.
+            if (!permits.tryAcquire()) {
+                return true;
+            }
+            return deliverQueued(null);
+        }
+
+        Throwable failure = null;
+        try {
+            strategy.handle(event, this);
+        } catch (Throwable t) {
+            failure = t;
+        }
+        return deliverQueued(failure);
+    }
+
+    /**
+     * Delivers queued events while holding a permit, and releases it once the
+     * queue is empty.  If the strategy of any delivery throws, the remaining
+     * queued events are still delivered before the first exception is rethrown.
+     *
+     * @param failure the exception thrown for the event of the posting thread, if any.
+     * @return {@code true}, handlers that queue events cannot veto.
+     */
+    private boolean deliverQueued(Throwable failure) {
+        do {
+            Delivery delivery;
+            while ((delivery = queued.poll()) != null) {
+                try {
+                    delivery.strategy.handle(delivery.event, this);
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    }
+                }
+            }
+            permits.release();
+            // Events queued after the poll, while all permits were taken, are left to the last thread to release one.
+        } while (!queued.isEmpty() && permits.tryAcquire());
+
+        if (failure != null) {
+            throw Throwables.propagate(failure);
+        }
+        return true;
+    }
+
+    private static final class Delivery {
+        final Object event;
+        final EventHandlerStrategy strategy;
+
+        Delivery(Object event, EventHandlerStrategy strategy) {
+            this.event = event;
+            this.strategy = strategy;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedEventHandler.class);
+}
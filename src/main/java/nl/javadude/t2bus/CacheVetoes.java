@@ -0,0 +1,50 @@
+package nl.javadude.t2bus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a vetoing method as a pure function of a key of its events, so that
+ * the bus can remember its decisions.  The key of each event is determined by
+ * the {@link KeyExtractor}:
+ * <pre>
+ * &#64;Subscribe(canVeto = true)
+ * &#64;CacheVetoes(by = ByTenant.class, maximumSize = 1000, expireAfterWriteMillis = 60000)
+ * public boolean tenantEnabled(OrderEvent event) { ... }
+ * </pre>
+ * <p/>
+ * <p>Whether the method passes or vetoes an event, the decision is remembered
+ * for the key of the event, and the method is not called for later events with
+ * an equal key, until the decision is evicted.  A vetoer that throws a
+ * {@link VetoException} has the same instance rethrown for those events.
+ * Decisions are not remembered when the method fails otherwise, or when the key
+ * is {@code null}.  {@link T2Bus#invalidateVetoDecisions(Object)} forgets the
+ * decisions of a listener, for instance when the state they depend on changes.
+ * <p/>
+ * <p>This does not mark the method as an event handler, and so should be used
+ * in combination with {@link Subscribe}.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CacheVetoes {
+    /**
+     * The {@link KeyExtractor} that determines the key of each event.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends KeyExtractor> by();
+
+    /**
+     * The maximum number of decisions remembered, per listener.
+     */
+    long maximumSize() default 10000;
+
+    /**
+     * The time in milliseconds after which a decision is forgotten, or
+     * {@code 0} to keep it until it is evicted or invalidated.
+     */
+    long expireAfterWriteMillis() default 0;
+}
@@ -0,0 +1,37 @@
+package nl.javadude.t2bus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an event handling method as only interested in the latest event per
+ * key.  While the method is busy handling an event, newer events replace the
+ * pending events with the same key, as determined by the {@link KeyExtractor},
+ * instead of queueing up behind them:
+ * <pre>
+ * &#64;Subscribe
+ * &#64;ConflateEvents(by = BySymbol.class)
+ * public void onPrice(PriceUpdate update) { ... }
+ * </pre>
+ * <p/>
+ * <p>At most one event per key is pending at any time.  Pending events are
+ * delivered in the order in which their keys first became pending, by the
+ * thread that found the method idle.  Conflating methods are never invoked
+ * concurrently, and cannot veto events.
+ * <p/>
+ * <p>This does not mark the method as an event handler, and so should be used
+ * in combination with {@link Subscribe}.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ConflateEvents {
+    /**
+     * The {@link KeyExtractor} that determines the key of each event.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends KeyExtractor> by();
+}
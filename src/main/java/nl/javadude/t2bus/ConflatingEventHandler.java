@@ -0,0 +1,136 @@
+package nl.javadude.t2bus;
+
+import com.google.common.base.Throwables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+
+/**
+ * Wraps a {@link ConflateEvents} handler method, keeping only the latest
+ * pending event per key while the method is busy.
+ * <p/>
+ * <p>The first thread to hand an event to an idle handler becomes its drainer,
+ * and delivers pending events until there are none left, each through the
+ * {@link EventHandlerStrategy} it was posted with.  Other threads only
+ * add or replace a pending event, and return immediately.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+class ConflatingEventHandler extends EventHandler {
+    private final KeyExtractor<Object> keyExtractor;
+
+    /**
+     * The latest pending delivery per key, in the order in which the keys became pending.
+     */
+    private final Map<Object, Delivery> pending = newLinkedHashMap();
+
+    /**
+     * Whether a thread is delivering the pending events.
+     */
+    private boolean draining;
+
+    /**
+     * Creates a new ConflatingEventHandler to wrap {@code method} on
+     * {@code target}.
+     *
+     * @param target       object to which the method applies.
+     * @param method       handler method.
+     * @param priority     handlers with a higher priority are called first.
+     * @param keyExtractor determines the key of each event.
+     */
+    ConflatingEventHandler(Object target, Method method, int priority, KeyExtractor<Object> keyExtractor) {
+        super(target, method, false, priority);
+        this.keyExtractor = checkNotNull(keyExtractor, "keyExtractor cannot be null.");
+    }
+
+    /**
+     * Makes {@code event} the pending event for its key, and delivers the pending
+     * events through the strategies they were posted with, if no other thread
+     * is doing so.  If a strategy throws, the remaining pending events are still
+     * delivered before the first exception is rethrown; later ones are logged.
+     * An event whose key cannot be extracted is delivered without conflation.
+     *
+     * @return {@code true}, conflating handlers cannot veto.
+     */
+    @Override
+    boolean dispatch(Object event, EventHandlerStrategy strategy) {
+        Delivery delivery = new Delivery(event, strategy);
+        Object key;
+        try {
+            key = keyExtractor.keyOf(event);
+        } catch (RuntimeException e) {
+            logger.error("Could not extract the key of event " + event + " for handler " + this
+                    + ", delivering it without conflation", e);
+            key = delivery;
+        }
+
+        synchronized (this) {
+            pending.put(key, delivery);
+            if (draining) {
+                return true;
+            }
+            draining = true;
+        }
+
+        Throwable failure = null;
+        boolean drained = false;
+        try {
+            Delivery next;
+            while ((next = takeNext()) != null) {
+                try {
+                    next.strategy.handle(next.event, this);
+                } catch (Throwable t) {
+                    if (failure == null) {
+                        failure = t;
+                    } else {
+                        logger.error("Could not deliver conflated event " + next.event + " to handler " + this, t);
+                    }
+                }
+            }
+            drained = true;
+        } finally {
+            if (!drained) {
+                synchronized (this) {
+                    draining = false;
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw Throwables.propagate(failure);
+        }
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest pending event, or stops draining if there is none.
+     */
+    private synchronized Delivery takeNext() {
+        Iterator<Delivery> deliveries = pending.values().iterator();
+        if (!deliveries.hasNext()) {
+            draining = false;
+            return null;
+        }
+        Delivery next = deliveries.next();
+        deliveries.remove();
+        return next;
+    }
+
+    private static final class Delivery {
+        final Object event;
+        final EventHandlerStrategy strategy;
+
+        Delivery(Object event, EventHandlerStrategy strategy) {
+            this.event = event;
+            this.strategy = strategy;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ConflatingEventHandler.class);
+}
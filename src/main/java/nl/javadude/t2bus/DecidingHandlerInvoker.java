@@ -0,0 +1,23 @@
+package nl.javadude.t2bus;
+
+/**
+ * Calls one specific vetoer method that returns its decision, on a target
+ * object.
+ * <p/>
+ * <p>Like {@link HandlerInvoker}, this interface is public only because generated
+ * implementations live in the package of the listener class; it is not meant to
+ * be implemented by users of the bus.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public interface DecidingHandlerInvoker {
+    /**
+     * Invokes the vetoer method on {@code target}.
+     *
+     * @param target object bearing the vetoer method.
+     * @param event  event to pass to the vetoer method.
+     * @return the {@link Boolean} or {@link VetoResult} returned by the vetoer method.
+     * @throws Throwable anything thrown by the vetoer method, as-is.
+     */
+    Object invoke(Object target, Object event) throws Throwable;
+}
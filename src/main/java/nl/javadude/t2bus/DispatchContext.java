@@ -0,0 +1,82 @@
+package nl.javadude.t2bus;
+
+import nl.javadude.t2bus.T2Bus.EventWithHandlers;
+
+/**
+ * Thread-confined dispatch state of one thread on one {@link T2Bus}: the FIFO
+ * of events the thread still has to dispatch, whether it is dispatching, and
+ * the {@link EventHandlerStrategy} its deliveries are handled with.
+ * <p/>
+ * <p>The queue is a ring of {@link EventWithHandlers} slots which are reused
+ * over and over again, so once it has grown to the reentrancy depth of the
+ * thread, queueing an event no longer allocates.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+final class DispatchContext {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private EventWithHandlers[] slots = new EventWithHandlers[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    /**
+     * true if the owning thread is currently dispatching an event
+     */
+    boolean dispatching;
+
+    /**
+     * strategy used for the deliveries made by the owning thread
+     */
+    EventHandlerStrategy strategy;
+
+    DispatchContext(EventHandlerStrategy strategy) {
+        this.strategy = strategy;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new EventWithHandlers();
+        }
+    }
+
+    void offer(Object event, DispatchPlan plan) {
+        if (size == slots.length) {
+            grow();
+        }
+        EventWithHandlers slot = slots[(head + size) & (slots.length - 1)];
+        slot.event = event;
+        slot.plan = plan;
+        size++;
+    }
+
+    /**
+     * Returns the oldest queued event without removing it, so that its slot cannot
+     * be reused by events queued while it is being dispatched.
+     *
+     * @return the oldest queued event, or {@code null} if the queue is empty.
+     */
+    EventWithHandlers peek() {
+        return size == 0 ? null : slots[head];
+    }
+
+    /**
+     * Removes the oldest queued event, releasing its slot for reuse.
+     */
+    void remove() {
+        EventWithHandlers slot = slots[head];
+        slot.event = null;
+        slot.plan = null;
+        head = (head + 1) & (slots.length - 1);
+        size--;
+    }
+
+    private void grow() {
+        EventWithHandlers[] grown = new EventWithHandlers[slots.length << 1];
+        for (int i = 0; i < size; i++) {
+            grown[i] = slots[(head + i) & (slots.length - 1)];
+        }
+        for (int i = size; i < grown.length; i++) {
+            grown[i] = new EventWithHandlers();
+        }
+        slots = grown;
+        head = 0;
+    }
+}
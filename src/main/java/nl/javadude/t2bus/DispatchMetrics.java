@@ -0,0 +1,49 @@
+package nl.javadude.t2bus;
+
+/**
+ * Receives measurements of the work a {@link T2Bus} does, once set with
+ * {@link T2Bus#setDispatchMetrics(DispatchMetrics)}.  A bus without metrics
+ * does not measure anything.
+ * <p/>
+ * <p>Methods are called on the posting and delivering threads, possibly
+ * concurrently, so implementations should be thread-safe, fast, and should
+ * never throw.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ * @see nl.javadude.t2bus.metrics.HistogramDispatchMetrics
+ */
+public interface DispatchMetrics {
+    /**
+     * Called when an event is posted, including {@link DeadEvent}s posted by
+     * the bus itself.
+     *
+     * @param eventClass concrete class of the posted event.
+     */
+    void eventPosted(Class<?> eventClass);
+
+    /**
+     * Called when an event is posted that no handler accepts.
+     *
+     * @param eventClass concrete class of the dead event.
+     */
+    void deadEvent(Class<?> eventClass);
+
+    /**
+     * Called when an event has been offered to its vetoers, and delivered to its
+     * handlers if it was not vetoed.  For buses that deliver asynchronously, this
+     * only covers handing the event to them.
+     *
+     * @param eventClass concrete class of the dispatched event.
+     * @param vetoed     whether a vetoer vetoed the event.
+     * @param nanos      duration of the dispatch.
+     */
+    void eventDispatched(Class<?> eventClass, boolean vetoed, long nanos);
+
+    /**
+     * Called when an event has been handed to a handler.
+     *
+     * @param handler the handler, or vetoer, that was called.
+     * @param nanos   duration of the call.
+     */
+    void eventHandled(EventHandler handler, long nanos);
+}
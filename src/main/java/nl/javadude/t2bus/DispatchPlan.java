@@ -0,0 +1,78 @@
+package nl.javadude.t2bus;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * The precomputed set of handlers an event of one concrete class is dispatched
+ * to, split into vetoers and regular handlers, each sorted by descending
+ * {@link Subscribe#priority()}.
+ * <p/>
+ * <p>Plans are immutable, built once per event class by {@link T2Bus} and
+ * discarded whenever a registration touches any type in that event class's
+ * hierarchy.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+final class DispatchPlan {
+    private static final EventHandler[] NO_HANDLERS = new EventHandler[0];
+
+    private static final Comparator<EventHandler> BY_DESCENDING_PRIORITY = new Comparator<EventHandler>() {
+        @Override
+        public int compare(EventHandler o1, EventHandler o2) {
+            return o1.getPriority() > o2.getPriority() ? -1 : (o1.getPriority() == o2.getPriority() ? 0 : 1);
+        }
+    };
+
+    /**
+     * Plan for event classes that no handler is registered for.
+     */
+    static final DispatchPlan DEAD = new DispatchPlan(NO_HANDLERS, NO_HANDLERS);
+
+    final EventHandler[] vetoers;
+    final EventHandler[] handlers;
+
+    private DispatchPlan(EventHandler[] vetoers, EventHandler[] handlers) {
+        this.vetoers = vetoers;
+        this.handlers = handlers;
+    }
+
+    /**
+     * Creates a plan from the distinct handlers found in an event class's
+     * hierarchy.  Handlers with equal priorities keep their iteration order.
+     *
+     * @param wrappers all handlers that should receive the event.
+     * @return a new plan, or {@link #DEAD} if {@code wrappers} is empty.
+     */
+    static DispatchPlan of(Collection<EventHandler> wrappers) {
+        if (wrappers.isEmpty()) {
+            return DEAD;
+        }
+
+        int vetoerCount = 0;
+        for (EventHandler wrapper : wrappers) {
+            if (wrapper.isVetoer()) {
+                vetoerCount++;
+            }
+        }
+
+        EventHandler[] vetoers = vetoerCount == 0 ? NO_HANDLERS : new EventHandler[vetoerCount];
+        EventHandler[] handlers = vetoerCount == wrappers.size() ? NO_HANDLERS : new EventHandler[wrappers.size() - vetoerCount];
+        int v = 0, h = 0;
+        for (EventHandler wrapper : wrappers) {
+            if (wrapper.isVetoer()) {
+                vetoers[v++] = wrapper;
+            } else {
+                handlers[h++] = wrapper;
+            }
+        }
+        Arrays.sort(vetoers, BY_DESCENDING_PRIORITY);
+        Arrays.sort(handlers, BY_DESCENDING_PRIORITY);
+        return new DispatchPlan(vetoers, handlers);
+    }
+
+    boolean isDead() {
+        return this == DEAD;
+    }
+}
@@ -16,9 +16,11 @@
 
 package nl.javadude.t2bus;
 
+import java.lang.ref.Reference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Lists.newArrayList;
@@ -39,30 +41,64 @@ import static com.google.common.collect.Lists.newArrayList;
 public class EventHandler {
 
     /**
-     * Object sporting the handler method.
+     * Object sporting the handler method, {@code null} if it is held weakly.
      */
-    private final Object target;
+    private Object target;
+
+    /**
+     * Weak reference to the object sporting the handler method, {@code null} if
+     * it is held strongly.
+     */
+    private Reference<?> targetReference;
     /**
      * Handler method.
      */
     private final Method method;
 
+    /**
+     * Calls the handler method on the target, {@code null} if it is a vetoer
+     * that returns its decision.
+     */
+    private final HandlerInvoker invoker;
+
+    /**
+     * Calls the handler method on the target if it is a vetoer that returns its
+     * decision, {@code null} otherwise.
+     */
+    private final DecidingHandlerInvoker decidingInvoker;
+
     /**
      * Whether the method is a vetoer.
      */
     private boolean vetoer;
 
+    /**
+     * Handlers with a higher priority are called first.
+     */
+    private final int priority;
+
+    /**
+     * Computed once, as registries with many handlers hash them often.
+     */
+    private final int hashCode;
+
     EventHandler(Object target, Method method) {
         this(target, method, false);
     }
 
+    EventHandler(Object target, Method method, boolean vetoer) {
+        this(target, method, vetoer, 0);
+    }
+
     /**
      * Creates a new EventHandler to wrap {@code method} on @{code target}.
      *
-     * @param target object to which the method applies.
-     * @param method handler method.
+     * @param target   object to which the method applies.
+     * @param method   handler method.
+     * @param vetoer   whether the method can veto events.
+     * @param priority handlers with a higher priority are called first.
      */
-    EventHandler(Object target, Method method, boolean vetoer) {
+    EventHandler(Object target, Method method, boolean vetoer, int priority) {
         checkNotNull(target, "EventHandler target cannot be null.");
         checkNotNull(method, "EventHandler method cannot be null.");
         checkState(vetoer || !newArrayList(method.getExceptionTypes()).contains(VetoException.class), "Method %s is not annotated as veto-er, but throws VetoExceptions", method.getName());
@@ -70,11 +106,27 @@ public class EventHandler {
         this.target = target;
         this.method = method;
         this.vetoer = vetoer;
+        this.priority = priority;
+        this.hashCode = (31 + method.hashCode()) * 31 + System.identityHashCode(target);
         method.setAccessible(true);
+        if (vetoer && returnsDecision(method)) {
+            this.invoker = null;
+            this.decidingInvoker = HandlerInvokers.forDecidingMethod(method);
+        } else {
+            this.invoker = HandlerInvokers.forMethod(method);
+            this.decidingInvoker = null;
+        }
+    }
+
+    private static boolean returnsDecision(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType == boolean.class || returnType == Boolean.class || returnType == VetoResult.class;
     }
 
     /**
-     * Invokes the wrapped handler method to handle {@code event}.
+     * Invokes the wrapped handler method to handle {@code event}.  A vetoer that
+     * returns its decision has a veto thrown as a {@link VetoException}, see
+     * {@link #handleEventForResult(Object)} to get the decision without one.
      *
      * @param event event to handle
      * @throws java.lang.reflect.InvocationTargetException
@@ -84,28 +136,135 @@ public class EventHandler {
      * @throws VetoException if the method vetoes the event.
      */
     public void handleEvent(Object event) throws InvocationTargetException, VetoException {
+        VetoResult result = handleEventForResult(event);
+        if (result.isVetoed()) {
+            throw result.toException();
+        }
+    }
+
+    /**
+     * Invokes the wrapped handler method to handle {@code event}, and records
+     * the call as a {@code nl.javadude.t2bus.Handle} flight recorder event,
+     * whatever its outcome.
+     *
+     * @param event event to handle
+     * @return the decision of a vetoer that returns it, {@link VetoResult#PASSED}
+     *         for all other handlers.
+     * @throws java.lang.reflect.InvocationTargetException
+     *                       if the wrapped method throws any
+     *                       {@link Throwable} that is not an {@link Error} ({@code Error}s are
+     *                       propagated as-is).
+     * @throws VetoException if the method vetoes the event by throwing.
+     */
+    public VetoResult handleEventForResult(Object event) throws InvocationTargetException, VetoException {
+        Object target = getTarget();
+        if (target == null) {
+            // Weakly held target was collected, this handler is about to be removed.
+            return VetoResult.PASSED;
+        }
+        FlightRecorderEvents recorder = FlightRecorderEvents.instance();
+        Object recording = recorder.beginHandle();
+        if (recording == null) {
+            return invoke(target, event);
+        }
+        boolean vetoed = false;
+        Throwable failure = null;
         try {
-            method.invoke(target, event);
-        } catch (IllegalArgumentException e) {
-            throw new BusError("Method rejected target/argument: " + event, e);
-        } catch (IllegalAccessException e) {
-            throw new BusError("Method became inaccessible: " + event, e);
+            VetoResult result = invoke(target, event);
+            vetoed = result.isVetoed();
+            return result;
+        } catch (VetoException e) {
+            vetoed = true;
+            throw e;
         } catch (InvocationTargetException e) {
-            if (e.getCause() instanceof Error) {
-                throw (Error) e.getCause();
-            } else if (e.getCause() instanceof VetoException) {
-                throw (VetoException) e.getCause();
+            failure = e.getCause();
+            throw e;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } catch (Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            recorder.endHandle(recording, event, this, vetoed, failure);
+        }
+    }
+
+    private VetoResult invoke(Object target, Object event) throws InvocationTargetException, VetoException {
+        try {
+            if (decidingInvoker != null) {
+                return toVetoResult(decidingInvoker.invoke(target, event));
             }
+            invoker.invoke(target, event);
+            return VetoResult.PASSED;
+        } catch (Error e) {
+            throw e;
+        } catch (VetoException e) {
             throw e;
+        } catch (ClassCastException e) {
+            if (!method.getParameterTypes()[0].isInstance(event)) {
+                throw new BusError("Method rejected target/argument: " + event, e);
+            }
+            throw new InvocationTargetException(e);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    private static VetoResult toVetoResult(Object decision) {
+        if (decision instanceof VetoResult) {
+            return (VetoResult) decision;
         }
+        return Boolean.FALSE.equals(decision) ? VetoResult.VETOED : VetoResult.PASSED;
+    }
+
+    /**
+     * Hands {@code event} to {@code strategy} to call this handler.  This is
+     * provided as an override point for handlers that defer the call.
+     *
+     * @param event    event to handle.
+     * @param strategy strategy of the posting thread, which handles the outcome of the call.
+     * @return {@code false} if the event was vetoed.
+     */
+    boolean dispatch(Object event, EventHandlerStrategy strategy) {
+        return strategy.handle(event, this);
     }
 
     public boolean isVetoer() {
         return vetoer;
     }
 
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the object sporting the handler method, or {@code null} if it was
+     *         held weakly and has been garbage collected.
+     */
     public Object getTarget() {
-        return target;
+        Reference<?> reference = targetReference;
+        return reference == null ? target : reference.get();
+    }
+
+    /**
+     * Stops holding the target strongly, and holds it through {@code reference}
+     * instead.  Must be called before the handler is published to other threads.
+     *
+     * @param reference weak reference to the target.
+     */
+    void holdTargetWeakly(Reference<?> reference) {
+        checkArgument(reference.get() == target, "Reference does not refer to the target of %s", this);
+        this.targetReference = reference;
+        this.target = null;
+    }
+
+    /**
+     * @return the weak reference through which the target is held, or
+     *         {@code null} if it is held strongly.
+     */
+    Reference<?> getTargetReference() {
+        return targetReference;
     }
 
     public Method getMethod() {
@@ -119,8 +278,7 @@ public class EventHandler {
 
     @Override
     public int hashCode() {
-        final int PRIME = 31;
-        return (PRIME + method.hashCode()) * PRIME + target.hashCode();
+        return hashCode;
     }
 
     @Override
@@ -139,7 +297,10 @@ public class EventHandler {
 
         final EventHandler other = (EventHandler) obj;
 
-        return method.equals(other.method) && target == other.target;
+        // Handlers whose target was collected are only equal to themselves.
+        Object target = getTarget();
+        // Handlers of one listener class share their Method instances, so compare identities first.
+        return target != null && target == other.getTarget() && (method == other.method || method.equals(other.method));
     }
 
 }
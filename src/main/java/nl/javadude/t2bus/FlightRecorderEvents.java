@@ -0,0 +1,102 @@
+package nl.javadude.t2bus;
+
+/**
+ * Emits Java Flight Recorder events for posts, dispatches and handler calls,
+ * on runtimes that have JFR.  The events are named {@code nl.javadude.t2bus.Post},
+ * {@code nl.javadude.t2bus.Dispatch} and {@code nl.javadude.t2bus.Handle}, are
+ * disabled by default, and are enabled and thresholded through the settings
+ * of a recording like any other JFR event, e.g.:
+ * <pre>
+ * java -XX:StartFlightRecording:nl.javadude.t2bus.Handle#enabled=true,nl.javadude.t2bus.Handle#threshold=1ms ...
+ * </pre>
+ * <p/>
+ * <p>Each {@code begin} method returns {@code null} when its event is
+ * disabled, in which case the matching {@code end} method does nothing.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+abstract class FlightRecorderEvents {
+    private static final FlightRecorderEvents INSTANCE = load();
+
+    FlightRecorderEvents() {
+    }
+
+    /**
+     * @return the events of this runtime, which do nothing without JFR.
+     */
+    static FlightRecorderEvents instance() {
+        return INSTANCE;
+    }
+
+    abstract Object beginPost();
+
+    abstract void endPost(Object recording, Class<?> eventClass, boolean dead);
+
+    abstract Object beginDispatch();
+
+    abstract void endDispatch(Object recording, Class<?> eventClass, boolean vetoed);
+
+    /**
+     * Starts timing a call to a handler.
+     *
+     * @return the recording to pass to {@link #endHandle}, or {@code null} if handler calls are not recorded.
+     */
+    abstract Object beginHandle();
+
+    /**
+     * Ends timing a call to a handler.
+     *
+     * @param recording the result of {@link #beginHandle()}.
+     * @param event     the event handed to the handler.
+     * @param handler   the handler.
+     * @param vetoed    whether the handler vetoed the event.
+     * @param failure   the exception thrown by the handler, if any.
+     */
+    abstract void endHandle(Object recording, Object event, EventHandler handler, boolean vetoed, Throwable failure);
+
+    /**
+     * @return whether this runtime records the events of the bus, when enabled.
+     */
+    static boolean isAvailable() {
+        return !(INSTANCE instanceof Disabled);
+    }
+
+    private static FlightRecorderEvents load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (FlightRecorderEvents) Class.forName("nl.javadude.t2bus.JfrFlightRecorderEvents").getDeclaredConstructor().newInstance();
+        } catch (Throwable t) {
+            // No JFR in this runtime, or the bus was built without its events (they are only in the jar for Java 11+).
+            return new Disabled();
+        }
+    }
+
+    private static final class Disabled extends FlightRecorderEvents {
+        @Override
+        Object beginPost() {
+            return null;
+        }
+
+        @Override
+        void endPost(Object recording, Class<?> eventClass, boolean dead) {
+        }
+
+        @Override
+        Object beginDispatch() {
+            return null;
+        }
+
+        @Override
+        void endDispatch(Object recording, Class<?> eventClass, boolean vetoed) {
+        }
+
+        @Override
+        Object beginHandle() {
+            return null;
+        }
+
+        @Override
+        void endHandle(Object recording, Object event, EventHandler handler, boolean vetoed, Throwable failure) {
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package nl.javadude.t2bus;
+
+/**
+ * Calls one specific event handler method on a target object.
+ * <p/>
+ * <p>Implementations are created by the bus, either generated at runtime or
+ * backed by reflection, and are shared by all {@link EventHandler}s for the same
+ * method. This interface is public only because generated implementations live
+ * in the package of the listener class; it is not meant to be implemented by
+ * users of the bus.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public interface HandlerInvoker {
+    /**
+     * Invokes the handler method on {@code target}.
+     *
+     * @param target object bearing the handler method.
+     * @param event  event to pass to the handler method.
+     * @throws Throwable anything thrown by the handler method, as-is.
+     */
+    void invoke(Object target, Object event) throws Throwable;
+}
@@ -0,0 +1,208 @@
+package nl.javadude.t2bus;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates the {@link HandlerInvoker}s used by {@link EventHandler}.
+ * <p/>
+ * <p>When the runtime provides {@code java.lang.invoke.LambdaMetafactory}, a
+ * handler method is called through a generated class that implements
+ * {@link HandlerInvoker}, which is as cheap as a direct interface call.
+ * Otherwise, or when the method cannot be linked that way, the method is called
+ * through reflection.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+final class HandlerInvokers {
+    private static final boolean LAMBDA_METAFACTORY_AVAILABLE = isLambdaMetafactoryAvailable();
+
+    /**
+     * Invokers per handler method, indexed by declaring class so that they do not
+     * keep classes from being unloaded.  As the methods refer to their class, the
+     * entries are held softly.  The invokers in the {@link SubscriberIndex} of a
+     * class are loaded along with its entry, so that they take precedence over
+     * invokers generated at runtime, whichever listener is registered first.
+     */
+    private static final LoadingCache<Class<?>, ConcurrentMap<Method, HandlerInvoker>> invokersByClass =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .softValues()
+                    .build(new CacheLoader<Class<?>, ConcurrentMap<Method, HandlerInvoker>>() {
+                        @Override
+                        public ConcurrentMap<Method, HandlerInvoker> load(Class<?> declaringClass) throws Exception {
+                            return indexedInvokers(declaringClass);
+                        }
+                    });
+
+    /**
+     * Invokers per vetoer method that returns its decision, held like {@link #invokersByClass}.
+     */
+    private static final LoadingCache<Class<?>, ConcurrentMap<Method, DecidingHandlerInvoker>> decidingInvokersByClass =
+            CacheBuilder.newBuilder()
+                    .weakKeys()
+                    .softValues()
+                    .build(new CacheLoader<Class<?>, ConcurrentMap<Method, DecidingHandlerInvoker>>() {
+                        @Override
+                        public ConcurrentMap<Method, DecidingHandlerInvoker> load(Class<?> declaringClass) throws Exception {
+                            return new ConcurrentHashMap<Method, DecidingHandlerInvoker>();
+                        }
+                    });
+
+    private HandlerInvokers() {
+    }
+
+    /**
+     * Returns an invoker for {@code method}, which should already have been made
+     * accessible.
+     *
+     * @param method the handler method.
+     * @return a (possibly shared) invoker calling {@code method}.
+     */
+    static HandlerInvoker forMethod(Method method) {
+        ConcurrentMap<Method, HandlerInvoker> invokers = invokersByClass.getUnchecked(method.getDeclaringClass());
+        HandlerInvoker invoker = invokers.get(method);
+        if (invoker == null) {
+            invoker = createInvoker(method);
+            HandlerInvoker existing = invokers.putIfAbsent(method, invoker);
+            if (existing != null) {
+                invoker = existing;
+            }
+        }
+        return invoker;
+    }
+
+    /**
+     * Returns an invoker for {@code method}, a vetoer that returns its decision,
+     * which should already have been made accessible.
+     *
+     * @param method the vetoer method.
+     * @return a (possibly shared) invoker calling {@code method}, and returning its result.
+     */
+    static DecidingHandlerInvoker forDecidingMethod(Method method) {
+        ConcurrentMap<Method, DecidingHandlerInvoker> invokers = decidingInvokersByClass.getUnchecked(method.getDeclaringClass());
+        DecidingHandlerInvoker invoker = invokers.get(method);
+        if (invoker == null) {
+            invoker = createDecidingInvoker(method);
+            DecidingHandlerInvoker existing = invokers.putIfAbsent(method, invoker);
+            if (existing != null) {
+                invoker = existing;
+            }
+        }
+        return invoker;
+    }
+
+    /**
+     * Collects the invokers that the {@link SubscriberIndex} of
+     * {@code declaringClass} has for the methods it declares.  The index may also
+     * list inherited methods, but its invokers for those only accept instances of
+     * {@code declaringClass}, so they are not shared.
+     */
+    private static ConcurrentMap<Method, HandlerInvoker> indexedInvokers(Class<?> declaringClass) {
+        ConcurrentMap<Method, HandlerInvoker> invokers = new ConcurrentHashMap<Method, HandlerInvoker>();
+        SubscriberIndex index = AnnotatedHandlerFinder.loadIndex(declaringClass);
+        if (index == null) {
+            return invokers;
+        }
+        for (SubscriberInfo subscriber : index.getSubscribers()) {
+            try {
+                Method method = declaringClass.getMethod(subscriber.methodName, subscriber.parameterType);
+                if (method.getDeclaringClass() == declaringClass) {
+                    invokers.put(method, subscriber.invoker);
+                }
+            } catch (NoSuchMethodException e) {
+                // Out of date index, the finder scans the class instead.
+            }
+        }
+        return invokers;
+    }
+
+    private static HandlerInvoker createInvoker(Method method) {
+        if (LAMBDA_METAFACTORY_AVAILABLE) {
+            try {
+                return LambdaHandlerInvokers.create(method);
+            } catch (Throwable t) {
+                logger.debug("Could not generate an invoker for {}, falling back to reflection", method, t);
+            }
+        }
+        return new ReflectiveHandlerInvoker(method);
+    }
+
+    private static DecidingHandlerInvoker createDecidingInvoker(Method method) {
+        if (LAMBDA_METAFACTORY_AVAILABLE) {
+            try {
+                return LambdaHandlerInvokers.createDeciding(method);
+            } catch (Throwable t) {
+                logger.debug("Could not generate an invoker for {}, falling back to reflection", method, t);
+            }
+        }
+        return new ReflectiveDecidingHandlerInvoker(method);
+    }
+
+    private static boolean isLambdaMetafactoryAvailable() {
+        try {
+            Class.forName("java.lang.invoke.LambdaMetafactory");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Invokes the handler method through {@link Method#invoke(Object, Object...)}.
+     */
+    static final class ReflectiveHandlerInvoker implements HandlerInvoker {
+        private final Method method;
+
+        ReflectiveHandlerInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public void invoke(Object target, Object event) throws Throwable {
+            try {
+                method.invoke(target, event);
+            } catch (IllegalArgumentException e) {
+                throw new BusError("Method rejected target/argument: " + event, e);
+            } catch (IllegalAccessException e) {
+                throw new BusError("Method became inaccessible: " + event, e);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Invokes the vetoer method through {@link Method#invoke(Object, Object...)}.
+     */
+    static final class ReflectiveDecidingHandlerInvoker implements DecidingHandlerInvoker {
+        private final Method method;
+
+        ReflectiveDecidingHandlerInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object invoke(Object target, Object event) throws Throwable {
+            try {
+                return method.invoke(target, event);
+            } catch (IllegalArgumentException e) {
+                throw new BusError("Method rejected target/argument: " + event, e);
+            } catch (IllegalAccessException e) {
+                throw new BusError("Method became inaccessible: " + event, e);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(HandlerInvokers.class);
+}
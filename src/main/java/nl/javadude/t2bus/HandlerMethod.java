@@ -0,0 +1,112 @@
+package nl.javadude.t2bus;
+
+import java.lang.reflect.Method;
+
+/**
+ * Everything needed to wrap one handler method of a listener class in an
+ * {@link EventHandler}, resolved once per class by a {@link HandlerFindingStrategy}.
+ * <p/>
+ * <p>Instances are immutable and shared by all listeners of the class.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+final class HandlerMethod {
+    final Method method;
+
+    /**
+     * The type the handler is registered for.
+     */
+    final Class<?> eventType;
+
+    final boolean canVeto;
+    final int priority;
+    final boolean threadSafe;
+
+    /**
+     * The maximum number of simultaneous invocations, unbounded if not positive.
+     */
+    final int maxConcurrency;
+
+    final SaturationPolicy saturationPolicy;
+
+    /**
+     * The batch settings, {@code null} if the method does not receive batches.
+     */
+    final BatchEvents batch;
+
+    /**
+     * The key extractor, {@code null} if the method does not conflate events.
+     */
+    final KeyExtractor<Object> keyExtractor;
+
+    /**
+     * Whether the method receives its events through a mailbox.
+     */
+    final boolean queued;
+
+    /**
+     * The veto cache settings, {@code null} if the decisions of the method are not remembered.
+     */
+    final CacheVetoes vetoCache;
+
+    /**
+     * The key extractor of the veto cache, {@code null} if there is none.
+     */
+    final KeyExtractor<Object> vetoKeyExtractor;
+
+    HandlerMethod(Method method, Class<?> eventType, boolean canVeto, int priority, boolean threadSafe,
+                  int maxConcurrency, SaturationPolicy saturationPolicy,
+                  BatchEvents batch, KeyExtractor<Object> keyExtractor, boolean queued,
+                  CacheVetoes vetoCache, KeyExtractor<Object> vetoKeyExtractor) {
+        this.method = method;
+        this.eventType = eventType;
+        this.canVeto = canVeto;
+        this.priority = priority;
+        this.threadSafe = threadSafe;
+        this.maxConcurrency = maxConcurrency;
+        this.saturationPolicy = saturationPolicy;
+        this.batch = batch;
+        this.keyExtractor = keyExtractor;
+        this.queued = queued;
+        this.vetoCache = vetoCache;
+        this.vetoKeyExtractor = vetoKeyExtractor;
+    }
+
+    /**
+     * Creates an {@code EventHandler} for subsequently calling the method on
+     * {@code listener}, of the implementation selected by its annotations.
+     *
+     * @param listener object bearing the event handler method.
+     * @return an EventHandler that will call the method on {@code listener}
+     *         when invoked.
+     */
+    EventHandler newHandler(Object listener) {
+        if (keyExtractor != null) {
+            return new ConflatingEventHandler(listener, method, priority, keyExtractor);
+        }
+        if (queued) {
+            return new MailboxEventHandler(listener, method, priority);
+        }
+        EventHandler wrapper;
+        if (threadSafe && maxConcurrency > 0) {
+            wrapper = new BoundedEventHandler(listener, method, canVeto, priority, maxConcurrency, saturationPolicy);
+        } else if (threadSafe) {
+            wrapper = new EventHandler(listener, method, canVeto, priority);
+        } else {
+            wrapper = new SynchronizedEventHandler(listener, method, canVeto, priority);
+        }
+        if (batch != null) {
+            return new BatchingEventHandler(listener, method, wrapper, batch.maxSize(), batch.maxLatencyMillis());
+        }
+        if (vetoCache != null) {
+            return new MemoizingEventHandler(listener, method, wrapper, vetoKeyExtractor,
+                    vetoCache.maximumSize(), vetoCache.expireAfterWriteMillis());
+        }
+        return wrapper;
+    }
+
+    @Override
+    public String toString() {
+        return "[handler method " + method + " for " + eventType.getName() + "]";
+    }
+}
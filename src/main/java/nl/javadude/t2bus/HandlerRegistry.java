@@ -0,0 +1,128 @@
+package nl.javadude.t2bus;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The handlers registered with a {@link T2Bus}, indexed by event type.
+ * <p/>
+ * <p>Writers add and remove handlers in a hashed set per event type, so that
+ * membership checks, additions and removals take constant time, regardless of
+ * the number of handlers registered for the type.  Readers get a copy-on-write
+ * snapshot of the handlers of a type, as an array, which the writer copies from
+ * the set once per batch of changes, so that reading never copies or blocks.
+ * <p/>
+ * <p>Changes should be serialized by the caller; reading is safe at any time.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+final class HandlerRegistry {
+    private static final EventHandler[] NO_HANDLERS = new EventHandler[0];
+
+    private final ConcurrentMap<Class<?>, TypeHandlers> handlersByType = new ConcurrentHashMap<Class<?>, TypeHandlers>();
+
+    private final Supplier<Set<EventHandler>> setSupplier;
+
+    /**
+     * @param setSupplier creates the (hashed) set the handlers of one type are kept in.
+     */
+    HandlerRegistry(Supplier<Set<EventHandler>> setSupplier) {
+        this.setSupplier = setSupplier;
+    }
+
+    void addAll(Class<?> eventType, Collection<EventHandler> handlers) {
+        TypeHandlers typeHandlers = handlersByType.get(eventType);
+        if (typeHandlers == null) {
+            typeHandlers = new TypeHandlers(setSupplier.get());
+            handlersByType.put(eventType, typeHandlers);
+        }
+        typeHandlers.addAll(handlers);
+    }
+
+    boolean contains(Class<?> eventType, EventHandler handler) {
+        TypeHandlers typeHandlers = handlersByType.get(eventType);
+        return typeHandlers != null && typeHandlers.contains(handler);
+    }
+
+    void removeAll(Class<?> eventType, Collection<EventHandler> handlers) {
+        TypeHandlers typeHandlers = handlersByType.get(eventType);
+        if (typeHandlers != null && typeHandlers.removeAll(handlers)) {
+            handlersByType.remove(eventType);
+        }
+    }
+
+    /**
+     * @return the event types that handlers are registered for, as a live view
+     *         that is safe to iterate while handlers change.
+     */
+    Set<Class<?>> eventTypes() {
+        return handlersByType.keySet();
+    }
+
+    /**
+     * @return the handlers currently registered for {@code eventType}, which the
+     *         caller must not modify.
+     */
+    EventHandler[] snapshot(Class<?> eventType) {
+        TypeHandlers typeHandlers = handlersByType.get(eventType);
+        return typeHandlers == null ? NO_HANDLERS : typeHandlers.snapshot();
+    }
+
+    /**
+     * @return an immutable copy of the handlers currently registered for
+     *         {@code eventType}, or {@code null} if there are none.
+     */
+    Set<EventHandler> get(Class<?> eventType) {
+        EventHandler[] handlers = snapshot(eventType);
+        return handlers.length == 0 ? null : ImmutableSet.copyOf(handlers);
+    }
+
+    /**
+     * The handlers of one event type.
+     */
+    private static final class TypeHandlers {
+        private final Set<EventHandler> members;
+
+        /**
+         * Copy of {@link #members}, replaced after each change.
+         */
+        private volatile EventHandler[] snapshot = NO_HANDLERS;
+
+        TypeHandlers(Set<EventHandler> members) {
+            this.members = members;
+        }
+
+        synchronized void addAll(Collection<EventHandler> handlers) {
+            if (members.addAll(handlers)) {
+                snapshot = members.toArray(new EventHandler[members.size()]);
+            }
+        }
+
+        synchronized boolean contains(EventHandler handler) {
+            return members.contains(handler);
+        }
+
+        /**
+         * @return whether no handlers are left.
+         */
+        synchronized boolean removeAll(Collection<EventHandler> handlers) {
+            boolean changed = false;
+            for (EventHandler handler : handlers) {
+                changed |= members.remove(handler);
+            }
+            if (changed) {
+                snapshot = members.toArray(new EventHandler[members.size()]);
+            }
+            return members.isEmpty();
+        }
+
+        EventHandler[] snapshot() {
+            return snapshot;
+        }
+    }
+}
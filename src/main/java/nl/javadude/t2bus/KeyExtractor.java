@@ -0,0 +1,20 @@
+package nl.javadude.t2bus;
+
+/**
+ * Extracts the key under which a {@link ConflateEvents} handler conflates
+ * events: of the pending events with equal keys, only the latest is delivered.
+ * Also extracts the key under which the decisions of a {@link CacheVetoes}
+ * vetoer are remembered.
+ * <p/>
+ * <p>Implementations need a no-argument constructor, and must be thread-safe.
+ *
+ * @param <E> type of the events.
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public interface KeyExtractor<E> {
+    /**
+     * @param event the event.
+     * @return the key of {@code event}, compared using {@link Object#equals(Object)}.
+     */
+    Object keyOf(E event);
+}
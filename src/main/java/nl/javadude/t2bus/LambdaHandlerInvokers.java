@@ -0,0 +1,69 @@
+package nl.javadude.t2bus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+import static java.lang.reflect.Modifier.isPublic;
+
+/**
+ * Generates {@link HandlerInvoker} implementations through
+ * {@link LambdaMetafactory}. Kept apart from {@link HandlerInvokers} so that it
+ * is only loaded on runtimes that provide {@code java.lang.invoke}.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+final class LambdaHandlerInvokers {
+    private static final MethodType INVOKED_TYPE = MethodType.methodType(HandlerInvoker.class);
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType DECIDING_INVOKED_TYPE = MethodType.methodType(DecidingHandlerInvoker.class);
+    private static final MethodType DECIDING_INVOKE_TYPE = MethodType.methodType(Object.class, Object.class, Object.class);
+
+    private LambdaHandlerInvokers() {
+    }
+
+    static HandlerInvoker create(Method method) throws Throwable {
+        return (HandlerInvoker) link(method, INVOKED_TYPE, INVOKE_TYPE);
+    }
+
+    /**
+     * Generates an invoker for a vetoer method that returns its decision, which
+     * is boxed if it is a {@code boolean}.
+     */
+    static DecidingHandlerInvoker createDeciding(Method method) throws Throwable {
+        return (DecidingHandlerInvoker) link(method, DECIDING_INVOKED_TYPE, DECIDING_INVOKE_TYPE);
+    }
+
+    private static Object link(Method method, MethodType invokedType, MethodType invokeType) throws Throwable {
+        MethodHandles.Lookup lookup = lookupIn(method);
+        MethodHandle implementation = lookup.unreflect(method);
+        MethodType instantiatedType = MethodType.methodType(invokeType.returnType(), method.getDeclaringClass(),
+                method.getParameterTypes()[0]);
+
+        CallSite site = LambdaMetafactory.metafactory(lookup, "invoke", invokedType, invokeType,
+                implementation, instantiatedType);
+        return site.getTarget().invokeWithArguments();
+    }
+
+    /**
+     * Returns a lookup with private access to the class declaring {@code method}, so that the
+     * generated invoker may live next to it. Before Java 9 there is no such
+     * lookup, and only public methods of public classes can be linked.
+     */
+    private static MethodHandles.Lookup lookupIn(Method method) throws Throwable {
+        Method privateLookupIn;
+        try {
+            privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        } catch (NoSuchMethodException e) {
+            if (!isPublic(method.getDeclaringClass().getModifiers()) || !isPublic(method.getModifiers())
+                    || !isPublic(method.getParameterTypes()[0].getModifiers())) {
+                throw new IllegalAccessException("Cannot link non-public handler method " + method);
+            }
+            return MethodHandles.lookup();
+        }
+        return (MethodHandles.Lookup) privateLookupIn.invoke(null, method.getDeclaringClass(), MethodHandles.lookup());
+    }
+}
@@ -0,0 +1,204 @@
+package nl.javadude.t2bus;
+
+import com.google.common.base.Throwables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wraps a {@link QueueEvents} handler method, serializing its deliveries
+ * through a lock-free mailbox.
+ * <p/>
+ * <p>Every delivery is added to the mailbox.  The thread whose delivery makes
+ * the mailbox non-empty becomes its drainer, and handles the deliveries that
+ * are in the mailbox at that moment.  If others have been added meanwhile, it
+ * keeps handling them one at a time only until another poster takes over, so
+ * that under sustained posting no thread drains the mailbox indefinitely.
+ * Other threads never block on the handler; a thread that takes over only
+ * waits for the delivery in progress to complete.
+ * <p/>
+ * <p>Failures of the delivery of the drainer's own event are rethrown to it.
+ * Failures of deliveries of other posters are logged, as those posters have
+ * already returned.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+class MailboxEventHandler extends EventHandler {
+    private final Queue<Delivery> mailbox = new ConcurrentLinkedQueue<Delivery>();
+
+    /**
+     * Number of deliveries added to the mailbox and not handled yet.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Guards {@link #handoff} and the successor of the handoff.
+     */
+    private final Object handoffLock = new Object();
+
+    /**
+     * The handoff offered by the drainer once it has handled its share of the
+     * deliveries, or {@code null} if it has not.
+     */
+    private Handoff handoff;
+
+    /**
+     * Creates a new MailboxEventHandler to wrap {@code method} on
+     * {@code target}.
+     *
+     * @param target   object to which the method applies.
+     * @param method   handler method.
+     * @param priority handlers with a higher priority are called first.
+     */
+    MailboxEventHandler(Object target, Method method, int priority) {
+        super(target, method, false, priority);
+    }
+
+    /**
+     * Adds {@code event} to the mailbox, and handles the deliveries in it if no
+     * other thread is doing so, or if the draining thread has handled its
+     * share.  If the strategy throws for {@code event}, the exception is
+     * rethrown once the share of this thread has been handled.
+     *
+     * @return {@code true}, queued handlers cannot veto.
+     */
+    @Override
+    boolean dispatch(Object event, EventHandlerStrategy strategy) {
+        Delivery own = new Delivery(event, strategy);
+        mailbox.offer(own);
+        if (pending.getAndIncrement() != 0 && !takeOver()) {
+            return true;
+        }
+
+        Throwable failure = drain(own);
+        if (failure != null) {
+            throw Throwables.propagate(failure);
+        }
+        return true;
+    }
+
+    /**
+     * Becomes the successor of a drainer that has handled its share, and waits
+     * until it stops.
+     *
+     * @return {@code true} if this thread should continue draining the
+     *         mailbox, {@code false} if the drainer emptied it.
+     */
+    private boolean takeOver() {
+        Handoff offered;
+        synchronized (handoffLock) {
+            offered = handoff;
+            if (offered == null || offered.successor != null) {
+                return false;
+            }
+            offered.successor = Thread.currentThread();
+        }
+
+        boolean interrupted = false;
+        while (offered.outcome == Handoff.PENDING) {
+            LockSupport.park(this);
+            interrupted |= Thread.interrupted();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return offered.outcome == Handoff.TAKE_OVER;
+    }
+
+    /**
+     * Handles the deliveries that are in the mailbox, and offers a handoff if
+     * more have been added meanwhile.
+     *
+     * @param own the delivery of the calling thread.
+     * @return the exception thrown by the strategy for {@code own}, if it was handled by this thread.
+     */
+    private Throwable drain(Delivery own) {
+        Throwable failure = null;
+        // Every delivery is offered before it is counted, so all of them are in the mailbox.
+        int share = pending.get();
+        for (int i = 0; i < share; i++) {
+            failure = handle(mailbox.poll(), own, failure);
+        }
+        if (pending.addAndGet(-share) == 0) {
+            return failure;
+        }
+
+        Handoff offered = new Handoff();
+        synchronized (handoffLock) {
+            handoff = offered;
+        }
+        int outcome;
+        while (true) {
+            synchronized (handoffLock) {
+                if (offered.successor != null) {
+                    handoff = null;
+                    outcome = Handoff.TAKE_OVER;
+                    break;
+                }
+            }
+            failure = handle(mailbox.poll(), own, failure);
+            if (pending.decrementAndGet() == 0) {
+                synchronized (handoffLock) {
+                    // A new drainer may already have offered a handoff of its own.
+                    if (handoff == offered) {
+                        handoff = null;
+                    }
+                }
+                outcome = Handoff.DONE;
+                break;
+            }
+        }
+
+        // The handoff is withdrawn, so its successor can no longer change.
+        Thread successor = offered.successor;
+        if (successor != null) {
+            offered.outcome = outcome;
+            LockSupport.unpark(successor);
+        }
+        return failure;
+    }
+
+    private Throwable handle(Delivery delivery, Delivery own, Throwable failure) {
+        try {
+            delivery.strategy.handle(delivery.event, this);
+        } catch (Throwable t) {
+            if (delivery == own) {
+                return t;
+            }
+            logger.error("Could not deliver queued event " + delivery.event + " to handler " + this, t);
+        }
+        return failure;
+    }
+
+    private static final class Delivery {
+        final Object event;
+        final EventHandlerStrategy strategy;
+
+        Delivery(Object event, EventHandlerStrategy strategy) {
+            this.event = event;
+            this.strategy = strategy;
+        }
+    }
+
+    /**
+     * Passes the mailbox from a drainer that has handled its share to the next
+     * poster.
+     */
+    private static final class Handoff {
+        static final int PENDING = 0, TAKE_OVER = 1, DONE = 2;
+
+        /**
+         * The poster taking over, guarded by {@link MailboxEventHandler#handoffLock}.
+         */
+        Thread successor;
+
+        volatile int outcome = PENDING;
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(MailboxEventHandler.class);
+}
@@ -0,0 +1,126 @@
+package nl.javadude.t2bus;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Remembers the decisions of a {@link CacheVetoes} vetoer per key, and only
+ * calls the vetoer for events whose key has no decision yet.
+ * <p/>
+ * <p>Threads that miss the same key at the same time wait for the first of them
+ * to call the vetoer, and share its decision.  The vetoer is called through
+ * {@link #handleEventForResult(Object)} of the handler it is wrapped in, which
+ * is why bounded vetoers cannot cache their decisions.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+class MemoizingEventHandler extends EventHandler {
+    /**
+     * Calls the vetoer method on a miss.
+     */
+    private final EventHandler vetoer;
+    private final KeyExtractor<Object> keyExtractor;
+
+    /**
+     * Per key, the {@link VetoResult} returned or the {@link VetoException} thrown by the vetoer.
+     */
+    private final Cache<Object, Object> decisions;
+
+    /**
+     * Creates a new MemoizingEventHandler to wrap {@code method} on
+     * {@code target}.
+     *
+     * @param target                 object to which the method applies.
+     * @param method                 vetoer method.
+     * @param vetoer                 handler that calls {@code method}.
+     * @param keyExtractor           extracts the key that decisions are remembered for.
+     * @param maximumSize            maximum number of decisions remembered.
+     * @param expireAfterWriteMillis time after which a decision is forgotten, never if {@code 0}.
+     */
+    MemoizingEventHandler(Object target, Method method, EventHandler vetoer, KeyExtractor<Object> keyExtractor,
+                          long maximumSize, long expireAfterWriteMillis) {
+        super(target, method, true, vetoer.getPriority());
+        checkArgument(maximumSize > 0, "Method %s remembers at most %s veto decisions, which is not positive.", method, maximumSize);
+        checkArgument(expireAfterWriteMillis >= 0, "Method %s forgets veto decisions after %s ms, which is negative.", method, expireAfterWriteMillis);
+        this.vetoer = checkNotNull(vetoer, "vetoer cannot be null.");
+        this.keyExtractor = checkNotNull(keyExtractor, "keyExtractor cannot be null.");
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(maximumSize);
+        if (expireAfterWriteMillis > 0) {
+            builder.expireAfterWrite(expireAfterWriteMillis, TimeUnit.MILLISECONDS);
+        }
+        this.decisions = builder.build();
+    }
+
+    /**
+     * Returns the remembered decision for the key of {@code event}, or calls the
+     * vetoer and remembers its decision.
+     *
+     * @param event event to handle
+     * @return the decision of the vetoer.
+     * @throws InvocationTargetException if the key extractor or the vetoer method throws.
+     * @throws VetoException             if the vetoer vetoes the event by throwing.
+     */
+    @Override
+    public VetoResult handleEventForResult(final Object event) throws InvocationTargetException, VetoException {
+        if (getTarget() == null) {
+            return VetoResult.PASSED;
+        }
+        Object key;
+        try {
+            key = keyExtractor.keyOf(event);
+        } catch (RuntimeException e) {
+            throw new InvocationTargetException(e);
+        }
+        if (key == null) {
+            return vetoer.handleEventForResult(event);
+        }
+
+        Object decision;
+        try {
+            decision = decisions.get(key, new Callable<Object>() {
+                @Override
+                public Object call() throws InvocationTargetException {
+                    try {
+                        return vetoer.handleEventForResult(event);
+                    } catch (VetoException e) {
+                        return e;
+                    }
+                }
+            });
+        } catch (ExecutionException e) {
+            // Only the vetoer method throws checked exceptions.
+            throw (InvocationTargetException) e.getCause();
+        } catch (UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        if (decision instanceof VetoException) {
+            throw (VetoException) decision;
+        }
+        return (VetoResult) decision;
+    }
+
+    /**
+     * Forgets all remembered decisions.
+     */
+    void invalidate() {
+        decisions.invalidateAll();
+    }
+
+    @Override
+    void holdTargetWeakly(Reference<?> reference) {
+        super.holdTargetWeakly(reference);
+        vetoer.holdTargetWeakly(reference);
+    }
+}
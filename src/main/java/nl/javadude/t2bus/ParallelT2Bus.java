@@ -0,0 +1,217 @@
+package nl.javadude.t2bus;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import nl.javadude.t2bus.T2Bus.EventWithHandlers;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link T2Bus} that delivers each event to its non-vetoing handlers in
+ * parallel, and returns from {@code post} once all of them have completed.
+ * <p/>
+ * <p>Vetoers are called one after another on the posting thread, as on a
+ * {@link T2Bus}.  Once an event has passed them, the posting thread and up to
+ * {@code handlers - 1} tasks on the executor take the handlers one by one, in
+ * order of priority, until all of them are taken.  Handlers marked
+ * {@link AllowConcurrentEvents} may thus run fully in parallel, while other
+ * handlers are still called for one event at a time.  As the posting thread
+ * takes part, delivery completes even when all threads of the executor are
+ * busy, for instance with events posted by handlers.
+ * <p/>
+ * <p>Events posted by a handler are dispatched after the current event has
+ * been delivered to all handlers, as on a {@link T2Bus}, also when the handler
+ * runs on a thread of the executor: such events are handed back to the posting
+ * thread, which dispatches them in the order in which the handlers completed.
+ * <p/>
+ * <p>If the {@link EventHandlerStrategy} throws for any of the handlers, the
+ * first exception is rethrown on the posting thread after all handlers have
+ * completed.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public class ParallelT2Bus extends T2Bus {
+    private final Executor executor;
+
+    /**
+     * Creates a new ParallelT2Bus named "default", that runs handlers on the
+     * common {@code ForkJoinPool}.
+     */
+    public ParallelT2Bus() {
+        this("default");
+    }
+
+    /**
+     * Creates a new ParallelT2Bus with the given {@code identifier}, that runs
+     * handlers on the common {@code ForkJoinPool}, or on a shared pool with a
+     * thread per processor on runtimes without one.
+     *
+     * @param identifier a brief name for this bus, for logging purposes.  Should
+     *                   be a valid Java identifier.
+     */
+    public ParallelT2Bus(String identifier) {
+        this(identifier, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Creates a new ParallelT2Bus with the given {@code identifier}, that runs
+     * handlers on {@code executor}.
+     *
+     * @param identifier a brief name for this bus, for logging purposes.  Should
+     *                   be a valid Java identifier.
+     * @param executor   executor that runs handlers next to the posting thread.
+     */
+    public ParallelT2Bus(String identifier, Executor executor) {
+        super(identifier);
+        this.executor = checkNotNull(executor, "executor cannot be null.");
+    }
+
+    @Override
+    void deliver(Object event, EventHandler[] handlers, EventHandlerStrategy strategy) {
+        if (handlers.length < 2) {
+            super.deliver(event, handlers, strategy);
+            return;
+        }
+
+        ParallelDelivery delivery = new ParallelDelivery(event, handlers, strategy, Thread.currentThread());
+        for (int i = 1; i < handlers.length; i++) {
+            try {
+                executor.execute(delivery);
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+        delivery.run();
+        delivery.awaitCompletion();
+    }
+
+    /**
+     * Delivers one event to a fixed set of handlers, from any number of threads.
+     */
+    private final class ParallelDelivery implements Runnable {
+        private final Object event;
+        private final EventHandler[] handlers;
+        private final EventHandlerStrategy strategy;
+        private final Thread poster;
+
+        /**
+         * Index of the next handler to be taken.
+         */
+        private final AtomicInteger next = new AtomicInteger();
+
+        /**
+         * Number of handlers that have completed.
+         */
+        private final AtomicInteger completed = new AtomicInteger();
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        /**
+         * Events posted by handlers on other threads than the poster, still to be
+         * dispatched by the poster.
+         */
+        private final Queue<EventWithHandlers> forwarded = new ConcurrentLinkedQueue<EventWithHandlers>();
+
+        ParallelDelivery(Object event, EventHandler[] handlers, EventHandlerStrategy strategy, Thread poster) {
+            this.event = event;
+            this.handlers = handlers;
+            this.strategy = strategy;
+            this.poster = poster;
+        }
+
+        @Override
+        public void run() {
+            // On other threads than the poster, mark the thread as dispatching, so
+            // that events posted by handlers stay in its queue until forwarded.
+            DispatchContext context = Thread.currentThread() != poster ? currentContext() : null;
+            boolean forwarding = context != null && !context.dispatching;
+            if (forwarding) {
+                context.dispatching = true;
+            }
+            try {
+                int i;
+                while ((i = next.getAndIncrement()) < handlers.length) {
+                    try {
+                        handle(event, handlers[i], strategy);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        if (forwarding) {
+                            forwardQueuedEvents(context);
+                        }
+                        if (completed.incrementAndGet() == handlers.length) {
+                            LockSupport.unpark(poster);
+                        }
+                    }
+                }
+            } finally {
+                if (forwarding) {
+                    context.dispatching = false;
+                }
+            }
+        }
+
+        private void forwardQueuedEvents(DispatchContext context) {
+            EventWithHandlers queued;
+            while ((queued = context.peek()) != null) {
+                EventWithHandlers copy = new EventWithHandlers();
+                copy.event = queued.event;
+                copy.plan = queued.plan;
+                forwarded.add(copy);
+                context.remove();
+            }
+        }
+
+        /**
+         * Waits, on the posting thread, until the handlers taken by other threads
+         * have completed, and queues the events they posted behind the current one.
+         */
+        void awaitCompletion() {
+            boolean interrupted = false;
+            while (completed.get() < handlers.length) {
+                LockSupport.park(this);
+                interrupted |= Thread.interrupted();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            DispatchContext context = currentContext();
+            EventWithHandlers posted;
+            while ((posted = forwarded.poll()) != null) {
+                enqueueEvent(context, posted.event, posted.plan);
+            }
+
+            Throwable t = failure.get();
+            if (t != null) {
+                throw Throwables.propagate(t);
+            }
+        }
+    }
+
+    /**
+     * The common {@code ForkJoinPool}, looked up reflectively so this bus still
+     * loads on runtimes that predate it.
+     */
+    private static final class DefaultExecutor {
+        static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                return (Executor) Class.forName("java.util.concurrent.ForkJoinPool").getMethod("commonPool").invoke(null);
+            } catch (Exception e) {
+                return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                        new ThreadFactoryBuilder().setNameFormat("t2bus-parallel-%d").setDaemon(true).build());
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package nl.javadude.t2bus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an event handling method as receiving its events through a mailbox,
+ * instead of making concurrent posters wait for each other:
+ * <pre>
+ * &#64;Subscribe
+ * &#64;QueueEvents
+ * public void onOrder(Order order) { ... }
+ * </pre>
+ * <p/>
+ * <p>The method is still invoked for one event at a time, in order of arrival.
+ * The first thread to post an event to an idle mailbox delivers the events in
+ * it until it is empty; threads that find it busy leave their event in the
+ * mailbox and return, so {@code post} may return before the method has
+ * received the event.  Each event is handled with the
+ * {@link EventHandlerStrategy} it was posted with.  Queued methods cannot veto
+ * events.
+ * <p/>
+ * <p>This does not mark the method as an event handler, and so should be used
+ * in combination with {@link Subscribe}.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface QueueEvents {
+}
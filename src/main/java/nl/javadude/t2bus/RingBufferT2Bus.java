@@ -0,0 +1,316 @@
+package nl.javadude.t2bus;
+
+import nl.javadude.t2bus.T2Bus.EventWithHandlers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link T2Bus} on which {@code post} only publishes the event into a
+ * preallocated ring, and a single dedicated dispatcher thread dispatches all
+ * events in the order in which they were published.
+ * <p/>
+ * <p>Any number of threads may post concurrently; claiming a slot in the ring
+ * is lock-free and does not allocate. When the ring is full, posters wait for
+ * the dispatcher to free a slot, backing off by yielding and parking. How the
+ * dispatcher idles while no events are published is determined by the
+ * {@link WaitStrategy}, trading latency for CPU usage.
+ * <p/>
+ * <p>Vetoers and handlers are called on the dispatcher thread only, using the
+ * {@link EventHandlerStrategy} of the thread that posted the event. As all
+ * deliveries happen on that one thread, handlers are never called concurrently
+ * and are called without synchronization. Events posted by handlers are
+ * dispatched on the dispatcher thread, after the event that is being dispatched.
+ * Exceptions thrown by the strategy cannot reach the poster anymore, and are
+ * logged instead.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public class RingBufferT2Bus extends T2Bus {
+    /**
+     * Bit set in {@link #claimed} once the bus has been shut down.
+     */
+    private static final long SHUTDOWN = 1L << 62;
+
+    /**
+     * How posters wait for room in a full ring. Never busy-spins, so that waiting
+     * posters cannot starve the dispatcher.
+     */
+    private static final WaitStrategy FULL_RING_WAIT_STRATEGY = WaitStrategies.parking(TimeUnit.MICROSECONDS.toNanos(10));
+
+    private final int mask;
+    private final EventWithHandlers[] slots;
+    private final EventHandlerStrategy[] strategies;
+
+    /**
+     * Per slot, the sequence of the event last published into it.
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * The next sequence to be claimed by a poster, with the {@link #SHUTDOWN} bit.
+     */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * All sequences below this one have been dispatched, and their slots are free.
+     */
+    private final AtomicLong consumed = new AtomicLong();
+
+    private final WaitStrategy waitStrategy;
+    private final Thread dispatcher;
+    private final AtomicBoolean dispatcherStarted = new AtomicBoolean();
+    private volatile DispatchContext dispatcherContext;
+
+    /**
+     * Creates a new RingBufferT2Bus named "default".
+     *
+     * @param capacity     number of slots in the ring, must be a power of two.
+     * @param waitStrategy how the dispatcher idles while no events are published.
+     */
+    public RingBufferT2Bus(int capacity, WaitStrategy waitStrategy) {
+        this("default", capacity, waitStrategy);
+    }
+
+    /**
+     * Creates a new RingBufferT2Bus with the given {@code identifier}. Its
+     * dispatcher thread is started when the first event is published.
+     *
+     * @param identifier   a brief name for this bus, for logging purposes.  Should
+     *                     be a valid Java identifier.
+     * @param capacity     number of slots in the ring, must be a power of two.
+     * @param waitStrategy how the dispatcher idles while no events are published.
+     */
+    public RingBufferT2Bus(String identifier, int capacity, WaitStrategy waitStrategy) {
+        super(identifier);
+        checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two, was %s", capacity);
+        this.waitStrategy = checkNotNull(waitStrategy, "waitStrategy cannot be null.");
+        this.mask = capacity - 1;
+        this.slots = new EventWithHandlers[capacity];
+        this.strategies = new EventHandlerStrategy[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new EventWithHandlers();
+            published.set(i, -1);
+        }
+
+        dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatchPublishedEvents();
+            }
+        }, "t2bus-" + identifier + "-dispatcher");
+        dispatcher.setDaemon(true);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this bus has been shut down, and the
+     *                               event is not posted by a handler.
+     */
+    @Override
+    public void post(Object event) {
+        if (Thread.currentThread() != dispatcher) {
+            checkNotShutdown(event, claimed.get());
+        }
+        super.post(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this bus has been shut down.
+     */
+    @Override
+    public void post(Object event, EventHandlerStrategy eventHandlerStrategy) {
+        checkNotShutdown(event, claimed.get());
+        super.post(event, eventHandlerStrategy);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this bus has been shut down, and the
+     *                               events are not posted by a handler.
+     */
+    @Override
+    public void postAll(Iterable<?> events) {
+        if (Thread.currentThread() != dispatcher) {
+            checkNotShutdown(events, claimed.get());
+        }
+        super.postAll(events);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if this bus has been shut down.
+     */
+    @Override
+    public void postAll(Iterable<?> events, EventHandlerStrategy eventHandlerStrategy) {
+        checkNotShutdown(events, claimed.get());
+        super.postAll(events, eventHandlerStrategy);
+    }
+
+    /**
+     * Stops accepting new events. Events that were already published are still
+     * dispatched, as are the events their handlers post; use {@link #awaitTermination(long, TimeUnit)} to wait for them.
+     * Pending batches of {@link BatchEvents} handlers are flushed on the calling
+     * thread, and batches collected afterwards are flushed as soon as they start.
+     */
+    public void shutdown() {
+        long current;
+        do {
+            current = claimed.get();
+        } while ((current & SHUTDOWN) == 0 && !claimed.compareAndSet(current, current | SHUTDOWN));
+        shutdownBatchFlusher();
+    }
+
+    public boolean isShutdown() {
+        return (claimed.get() & SHUTDOWN) != 0;
+    }
+
+    /**
+     * Waits until the dispatcher has dispatched all published events and stopped,
+     * or the timeout expires, whichever comes first. Returns immediately if no
+     * event was ever published.
+     *
+     * @param timeout the maximum time to wait.
+     * @param unit    the time unit of the timeout argument.
+     * @return {@code true} if the dispatcher has stopped, {@code false} if the
+     *         timeout expired first.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        unit.timedJoin(dispatcher, timeout);
+        return !dispatcher.isAlive();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Handlers are never called concurrently on this bus, so they are called
+     * without synchronization.
+     */
+    @Override
+    DispatchPlan newDispatchPlan(Collection<EventHandler> wrappers) {
+        List<EventHandler> unsynchronized = new ArrayList<EventHandler>(wrappers.size());
+        for (EventHandler wrapper : wrappers) {
+            if (wrapper instanceof SynchronizedEventHandler) {
+                unsynchronized.add(((SynchronizedEventHandler) wrapper).unsynchronized());
+            } else {
+                unsynchronized.add(wrapper);
+            }
+        }
+        return super.newDispatchPlan(unsynchronized);
+    }
+
+    /**
+     * Publishes the event into the ring, unless it is posted by a handler on the
+     * dispatcher thread. Those events are queued locally, so the dispatcher can
+     * never block on a full ring.
+     *
+     * @throws IllegalStateException if this bus has been shut down.
+     */
+    @Override
+    void enqueueEvent(DispatchContext context, Object event, DispatchPlan plan) {
+        if (context == dispatcherContext) {
+            super.enqueueEvent(context, event, plan);
+        } else {
+            publish(event, plan, context.strategy);
+        }
+    }
+
+    /**
+     * Events are only dispatched by the dispatcher thread.
+     */
+    @Override
+    void dispatchQueuedEvents(DispatchContext context) {
+    }
+
+    private void publish(Object event, DispatchPlan plan, EventHandlerStrategy strategy) {
+        long sequence = claim(event);
+        if (!dispatcherStarted.get() && dispatcherStarted.compareAndSet(false, true)) {
+            dispatcher.start();
+        }
+        int attempt = 0;
+        while (sequence - slots.length >= consumed.get()) {
+            FULL_RING_WAIT_STRATEGY.idle(attempt);
+            attempt = nextAttempt(attempt);
+        }
+
+        int index = (int) sequence & mask;
+        EventWithHandlers slot = slots[index];
+        slot.event = event;
+        slot.plan = plan;
+        strategies[index] = strategy;
+        published.lazySet(index, sequence);
+    }
+
+    private long claim(Object event) {
+        while (true) {
+            long current = claimed.get();
+            checkNotShutdown(event, current);
+            if (claimed.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    private void dispatchPublishedEvents() {
+        DispatchContext context = currentContext();
+        context.dispatching = true;
+        dispatcherContext = context;
+
+        long sequence = 0;
+        int attempt = 0;
+        while (true) {
+            int index = (int) sequence & mask;
+            if (published.get(index) == sequence) {
+                EventWithHandlers slot = slots[index];
+                context.strategy = strategies[index];
+                try {
+                    dispatch(slot, context.strategy);
+                    drainQueuedEvents(context);
+                } catch (Throwable t) {
+                    logger.error("Could not dispatch event " + slot.event, t);
+                } finally {
+                    slot.event = null;
+                    slot.plan = null;
+                    strategies[index] = null;
+                    consumed.lazySet(sequence + 1);
+                }
+                sequence++;
+                attempt = 0;
+            } else if (claimed.get() == (sequence | SHUTDOWN)) {
+                return;
+            } else {
+                waitStrategy.idle(attempt);
+                attempt = nextAttempt(attempt);
+            }
+        }
+    }
+
+    private static void checkNotShutdown(Object event, long claimed) {
+        if ((claimed & SHUTDOWN) != 0) {
+            throw new IllegalStateException("Cannot post event [" + event + "], the bus has been shut down.");
+        }
+    }
+
+    private static int nextAttempt(int attempt) {
+        return attempt == Integer.MAX_VALUE ? attempt : attempt + 1;
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferT2Bus.class);
+}
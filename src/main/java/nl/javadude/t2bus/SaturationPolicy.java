@@ -0,0 +1,26 @@
+package nl.javadude.t2bus;
+
+/**
+ * What a handler with a bounded {@link AllowConcurrentEvents#maxConcurrency()}
+ * does with an event when all of its permits are taken.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public enum SaturationPolicy {
+    /**
+     * The posting thread blocks until a permit is free, and then calls the
+     * handler itself.  {@code post} returns once the handler has received the
+     * event.  If the posting thread is interrupted while it waits, the handler
+     * does not receive the event, a handler that can veto vetoes it, and the
+     * thread keeps its interrupt status.
+     */
+    BLOCK,
+
+    /**
+     * The event is queued and the posting thread returns immediately.  One of
+     * the threads holding a permit delivers it once it is done with its own
+     * event, so the handler may receive the event after {@code post} returned.
+     * Handlers that can veto cannot queue events.
+     */
+    QUEUE
+}
@@ -28,7 +28,8 @@ import java.lang.annotation.Target;
  * <p>The type of event will be indicated by the method's first (and only)
  * parameter.  If this annotation is applied to methods with zero parameters,
  * or more than one parameter, the object containing the method will not be able
- * to register for event delivery from the {@link T2Bus}.
+ * to register for event delivery from the {@link T2Bus}.  Methods that are
+ * also annotated with @{@link BatchEvents} take a list of events instead.
  *
  * <p>Unless also annotated with @{@link AllowConcurrentEvents}, event handler
  * methods will be invoked serially by each event bus that they are registered
@@ -45,7 +46,20 @@ public @interface Subscribe {
      * Whether this Subscriber can veto events, thus preventing them from percolating to regular subscribers.
      *
      * <p>Subscribers which return true here, are called before subscribers which return false.</p>
+     *
+     * <p>A vetoer vetoes an event by throwing a {@link VetoException}, or by returning <code>false</code> or a
+     * {@link VetoResult} that is vetoed, which is cheaper.</p>
      * @return <code>true</code> if this Subscriber can veto an event.
      */
     boolean canVeto() default false;
+
+    /**
+     * The priority of this Subscriber.  Subscribers with a higher priority are called before subscribers with a lower
+     * priority for the same event; vetoers still are called before all non-vetoing subscribers.  Subscribers with
+     * equal priorities are called in no particular order.
+     *
+     * <p>Give cheap vetoers that reject most events a high priority, so that more expensive vetoers are skipped.</p>
+     * @return the priority, <code>0</code> by default.
+     */
+    int priority() default 0;
 }
@@ -0,0 +1,29 @@
+package nl.javadude.t2bus;
+
+/**
+ * Lists the handler methods of one listener class, as found at compile time by
+ * the subscriber index annotation processor (the {@code processor} artifact of
+ * this project).
+ * <p/>
+ * <p>The processor generates an implementation named
+ * {@code <ListenerClass>$$T2BusIndex} next to each listener class it can
+ * index. {@link AnnotatedHandlerFinder} uses it instead of scanning the class
+ * reflectively, and falls back to the reflective scan for classes without one.
+ * This interface is public only because generated implementations live in the
+ * package of the listener class; it is not meant to be implemented by users of
+ * the bus.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public interface SubscriberIndex {
+    /**
+     * Suffix of the name of the index class generated for a listener class.
+     */
+    String CLASS_NAME_SUFFIX = "$$T2BusIndex";
+
+    /**
+     * @return the handler methods of the indexed listener class, including the
+     *         ones it inherits.
+     */
+    SubscriberInfo[] getSubscribers();
+}
@@ -0,0 +1,42 @@
+package nl.javadude.t2bus;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * One handler method listed by a {@link SubscriberIndex}, with the values of
+ * its {@link Subscribe} and {@link AllowConcurrentEvents} annotations and an
+ * invoker that calls it directly.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public final class SubscriberInfo {
+    final String methodName;
+    final Class<?> parameterType;
+    final boolean canVeto;
+    final int priority;
+    final boolean allowConcurrentEvents;
+    final HandlerInvoker invoker;
+
+    /**
+     * @param methodName            name of the public handler method.
+     * @param parameterType         (erased) type of its single parameter.
+     * @param canVeto               {@link Subscribe#canVeto()} of the method.
+     * @param priority              {@link Subscribe#priority()} of the method.
+     * @param allowConcurrentEvents whether the method is annotated with {@link AllowConcurrentEvents}.
+     * @param invoker               calls the method.
+     */
+    public SubscriberInfo(String methodName, Class<?> parameterType, boolean canVeto, int priority,
+                          boolean allowConcurrentEvents, HandlerInvoker invoker) {
+        this.methodName = checkNotNull(methodName, "methodName cannot be null.");
+        this.parameterType = checkNotNull(parameterType, "parameterType cannot be null.");
+        this.canVeto = canVeto;
+        this.priority = priority;
+        this.allowConcurrentEvents = allowConcurrentEvents;
+        this.invoker = checkNotNull(invoker, "invoker cannot be null.");
+    }
+
+    @Override
+    public String toString() {
+        return "[subscriber " + methodName + "(" + parameterType.getName() + ")]";
+    }
+}
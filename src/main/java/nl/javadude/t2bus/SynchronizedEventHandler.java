@@ -18,6 +18,9 @@ package nl.javadude.t2bus;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Wraps a single-argument 'handler' method on a specific object, and ensures
@@ -25,11 +28,18 @@ import java.lang.reflect.Method;
  * <p/>
  * <p>Beyond synchronization, this class behaves identically to
  * {@link EventHandler}.
+ * <p/>
+ * <p>Deliveries are serialized with a {@link Lock} rather than a monitor, so
+ * that a virtual thread blocking inside the handler method, or waiting for its
+ * turn, does not pin its carrier thread.
  *
  * @author Cliff Biffle
  * @author Jeroen van Erp, jeroen@javadude.nl
  */
 class SynchronizedEventHandler extends EventHandler {
+    private final Lock lock = new ReentrantLock();
+    private final AtomicReference<EventHandler> unsynchronized = new AtomicReference<EventHandler>();
+
     /**
      * Creates a new SynchronizedEventHandler to wrap {@code method} on
      * {@code target}.
@@ -39,13 +49,59 @@ class SynchronizedEventHandler extends EventHandler {
      * @param canVeto whether the method can veto the event
      */
     public SynchronizedEventHandler(Object target, Method method, boolean canVeto) {
-        super(target, method, canVeto);
+        this(target, method, canVeto, 0);
+    }
+
+    /**
+     * Creates a new SynchronizedEventHandler to wrap {@code method} on
+     * {@code target}.
+     *
+     * @param target   object to which the method applies.
+     * @param method   handler method.
+     * @param canVeto  whether the method can veto the event
+     * @param priority handlers with a higher priority are called first.
+     */
+    public SynchronizedEventHandler(Object target, Method method, boolean canVeto, int priority) {
+        super(target, method, canVeto, priority);
+    }
+
+    /**
+     * Returns a handler for the same method and target that does not
+     * synchronize, for use by dispatchers that already guarantee that deliveries
+     * to this handler never overlap.
+     *
+     * <p/>
+     * <p>The equivalent is created once, so that every dispatch plan refers to
+     * the same handler, and metrics and events keyed by handler keep
+     * accumulating under one key.
+     *
+     * @return an unsynchronized equivalent of this handler.
+     */
+    EventHandler unsynchronized() {
+        EventHandler handler = unsynchronized.get();
+        if (handler != null) {
+            return handler;
+        }
+        Object target = getTarget();
+        if (target == null) {
+            return this;
+        }
+        handler = new EventHandler(target, getMethod(), isVetoer(), getPriority());
+        if (getTargetReference() != null) {
+            handler.holdTargetWeakly(getTargetReference());
+        }
+        return unsynchronized.compareAndSet(null, handler) ? handler : unsynchronized.get();
     }
 
     @Override
-    public synchronized void handleEvent(Object event)
+    public VetoResult handleEventForResult(Object event)
             throws InvocationTargetException, VetoException {
-        super.handleEvent(event);
+        lock.lock();
+        try {
+            return super.handleEventForResult(event);
+        } finally {
+            lock.unlock();
+        }
     }
 
 }
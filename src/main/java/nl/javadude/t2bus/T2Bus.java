@@ -18,27 +18,38 @@ package nl.javadude.t2bus;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.SetMultimap;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import nl.javadude.t2bus.event.strategy.LoggingEventHandlerStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
-import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newLinkedHashSet;
 
 /**
  * Dispatches events to listeners, and provides ways for listeners to register
@@ -77,7 +88,8 @@ import static com.google.common.collect.Lists.newArrayList;
  * <p/>
  * <p>All handlers that have {@link nl.javadude.t2bus.Subscribe#canVeto()}} set,
  * will be called before any handlers that cannot veto the event. If a handler vetoes
- * the event by throwing a {@link VetoException}, further processing of the event is suppressed.
+ * the event by throwing a {@link VetoException} or by returning a veto decision (see
+ * {@link VetoResult}), further processing of the event is suppressed.
  * </p>
  * <h2>Handler Methods</h2>
  * Event handler methods must accept only one argument: the event.
@@ -88,7 +100,8 @@ import static com.google.common.collect.Lists.newArrayList;
  * problems during development.
  * <p/>
  * <p>The only exception to this general rule are the veto handlers. They can
- * throw a {@link VetoException} indicating that the event should not be processed further.</p>
+ * throw a {@link VetoException} indicating that the event should not be processed further.
+ * Vetoers that veto often can return <code>false</code> or a {@link VetoResult} instead.</p>
  * <p/>
  * <p>The EventBus guarantees that it will not call a handler method from
  * multiple threads simultaneously, unless the method explicitly allows it by
@@ -121,14 +134,44 @@ public class T2Bus {
     /**
      * All registered event handlers, indexed by event type.
      */
-    private final SetMultimap<Class<?>, EventHandler> handlersByType =
-            Multimaps.newSetMultimap(new ConcurrentHashMap<Class<?>, Collection<EventHandler>>(),
-                    new Supplier<Set<EventHandler>>() {
-                        @Override
-                        public Set<EventHandler> get() {
-                            return newHandlerSet();
-                        }
-                    });
+    private final HandlerRegistry handlersByType = new HandlerRegistry(new Supplier<Set<EventHandler>>() {
+        @Override
+        public Set<EventHandler> get() {
+            return newHandlerSet();
+        }
+    });
+
+    /**
+     * Guards changes to {@link #handlersByType} and the (re)building of
+     * {@link #dispatchPlans}, so that a plan never outlives the registrations
+     * it was built from.
+     */
+    private final ReentrantLock registryLock = new ReentrantLock();
+
+    /**
+     * Receives the references to objects registered through
+     * {@link #registerWeakly(Object)} once they are garbage collected.
+     */
+    private final ReferenceQueue<Object> collectedListeners = new ReferenceQueue<Object>();
+
+    /**
+     * Listeners taken from {@link #collectedListeners} whose handlers have not
+     * been removed yet.
+     */
+    private final Queue<ListenerReference> expiredListeners = new ConcurrentLinkedQueue<ListenerReference>();
+
+    /**
+     * Dispatch plans, indexed by concrete event class. Built on first post of
+     * an event class, and dropped when a (un)registration touches its hierarchy.
+     */
+    private final Cache<Class<?>, DispatchPlan> dispatchPlans = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Incremented whenever the registered handlers change, so that
+     * {@link #postAll(Iterable)} can tell whether a plan it resolved is still
+     * current without looking it up again.
+     */
+    private volatile int registryVersion;
 
     /**
      * Logger for event dispatch failures.  Named by the fully-qualified name of
@@ -138,6 +181,12 @@ public class T2Bus {
 
     private final EventHandlerStrategy defaultEventHandler;
 
+    /**
+     * Receives measurements of posts, dispatches and handler calls, {@code null}
+     * when nothing should be measured.
+     */
+    private volatile DispatchMetrics metrics;
+
     /**
      * Strategy for finding handler methods in registered objects.  Currently,
      * only the {@link AnnotatedHandlerFinder} is supported, but this is
@@ -146,35 +195,31 @@ public class T2Bus {
     private final HandlerFindingStrategy finder = new AnnotatedHandlerFinder();
 
     /**
-     * queues of events for the current thread to dispatch
+     * Dispatch state of the current thread: its queue of events to dispatch,
+     * whether it is dispatching and the strategy used to handle deliveries.
      */
-    private final ThreadLocal<ConcurrentLinkedQueue<EventWithHandlers>> eventsToDispatch =
-            new ThreadLocal<ConcurrentLinkedQueue<EventWithHandlers>>() {
-                @Override
-                protected ConcurrentLinkedQueue<EventWithHandlers> initialValue() {
-                    return new ConcurrentLinkedQueue<EventWithHandlers>();
-                }
-            };
-
-    /**
-     * true if the current thread is currently dispatching an event
-     */
-    private final ThreadLocal<Boolean> isDispatching = new ThreadLocal<Boolean>() {
+    private final ThreadLocal<DispatchContext> dispatchContext = new ThreadLocal<DispatchContext>() {
         @Override
-        protected Boolean initialValue() {
-            return false;
+        protected DispatchContext initialValue() {
+            return new DispatchContext(defaultEventHandler);
         }
     };
 
     /**
-     * ExceptionHandler for the current thread. Can only be set when we're not dispatching events.
+     * Flushes the batches of {@link BatchEvents} handlers once their latency
+     * budget expires.  Only started once such a handler receives an event.
      */
-    private final ThreadLocal<EventHandlerStrategy> eventHandler = new ThreadLocal<EventHandlerStrategy>() {
-        @Override
-        protected EventHandlerStrategy initialValue() {
-            return defaultEventHandler;
-        }
-    };
+    private volatile ScheduledExecutorService batchFlusher;
+
+    /**
+     * Flushes scheduled on the batch flusher that have not run yet.
+     */
+    private final Set<Runnable> scheduledBatchFlushes = Collections.newSetFromMap(new ConcurrentHashMap<Runnable, Boolean>());
+
+    /**
+     * Whether the batch flusher has been shut down, guarded by {@link #registryLock}.
+     */
+    private boolean batchFlusherShutdown;
 
     /**
      * A thread-safe cache for flattenHierarchy(). The Class class is immutable.
@@ -208,6 +253,16 @@ public class T2Bus {
         defaultEventHandler = new LoggingEventHandlerStrategy();
     }
 
+    /**
+     * Starts reporting the work this bus does to {@code metrics}, replacing any
+     * metrics set before.
+     *
+     * @param metrics metrics to report to, or {@code null} to stop measuring.
+     */
+    public void setDispatchMetrics(DispatchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Registers all handler methods on {@code object} to receive events.
      * Handler methods are selected and classified using this EventBus's
@@ -217,7 +272,57 @@ public class T2Bus {
      * @param object object whose handler methods should be registered.
      */
     public void register(Object object) {
-        handlersByType.putAll(finder.findAllHandlers(object));
+        registerAll(Collections.singleton(object));
+    }
+
+    /**
+     * Registers all handler methods on each of the {@code objects} to receive
+     * events, as {@link #register(Object)} does.  The handlers of all objects
+     * are added to the registered handlers of each event type at once, which is
+     * cheaper than registering a large number of objects one by one.
+     *
+     * @param objects objects whose handler methods should be registered.
+     */
+    public void registerAll(Iterable<?> objects) {
+        register(findAllHandlers(objects));
+    }
+
+    /**
+     * Registers all handler methods on {@code object} to receive events, as
+     * {@link #register(Object)} does, but without keeping {@code object} from
+     * being garbage collected.  Once it is collected, its handlers stop
+     * receiving events, and are removed from the bus shortly after, so that
+     * listeners do not need to be unregistered.
+     * <p/>
+     * <p>The object can still be unregistered explicitly, like any other.
+     *
+     * @param object object whose handler methods should be registered.
+     */
+    public void registerWeakly(Object object) {
+        SetMultimap<Class<?>, EventHandler> methodsInListener = findAllHandlers(Collections.singleton(object));
+        ListenerReference reference = new ListenerReference(object, collectedListeners, methodsInListener);
+        for (EventHandler handler : methodsInListener.values()) {
+            handler.holdTargetWeakly(reference);
+        }
+        register(methodsInListener);
+    }
+
+    private void register(SetMultimap<Class<?>, EventHandler> methodsInListeners) {
+        for (EventHandler handler : methodsInListeners.values()) {
+            if (handler instanceof BatchingEventHandler) {
+                ((BatchingEventHandler) handler).flushOn(this);
+            }
+        }
+        registryLock.lock();
+        try {
+            removeCollectedListeners();
+            for (Entry<Class<?>, Collection<EventHandler>> entry : methodsInListeners.asMap().entrySet()) {
+                handlersByType.addAll(entry.getKey(), entry.getValue());
+            }
+            invalidateDispatchPlans(methodsInListeners.keySet());
+        } finally {
+            registryLock.unlock();
+        }
     }
 
     /**
@@ -227,19 +332,111 @@ public class T2Bus {
      * @throws IllegalArgumentException if the object was not previously registered.
      */
     public void unregister(Object object) {
-        Multimap<Class<?>, EventHandler> methodsInListener = finder.findAllHandlers(object);
-        for (Entry<Class<?>, Collection<EventHandler>> entry : methodsInListener.asMap().entrySet()) {
-            Set<EventHandler> currentHandlers = getHandlersForEventType(entry.getKey());
-            Collection<EventHandler> eventMethodsInListener = entry.getValue();
-
-            if (currentHandlers == null || !currentHandlers.containsAll(entry.getValue())) {
-                throw new IllegalArgumentException(
-                        "missing event handler for an annotated method. Is " + object + " registered?");
+        unregisterAll(Collections.singleton(object));
+    }
+
+    /**
+     * Unregisters all handler methods on each of the registered {@code objects},
+     * removing them from the registered handlers of each event type at once.
+     * Either all objects are unregistered, or none are.
+     *
+     * @param objects objects whose handler methods should be unregistered.
+     * @throws IllegalArgumentException if any of the objects was not previously registered.
+     */
+    public void unregisterAll(Iterable<?> objects) {
+        SetMultimap<Class<?>, EventHandler> methodsInListeners = findAllHandlers(objects);
+        registryLock.lock();
+        try {
+            removeCollectedListeners();
+            for (Entry<Class<?>, EventHandler> entry : methodsInListeners.entries()) {
+                if (!handlersByType.contains(entry.getKey(), entry.getValue())) {
+                    throw new IllegalArgumentException(
+                            "missing event handler for an annotated method. Is " + entry.getValue().getTarget() + " registered?");
+                }
+            }
+
+            for (Entry<Class<?>, Collection<EventHandler>> entry : methodsInListeners.asMap().entrySet()) {
+                handlersByType.removeAll(entry.getKey(), entry.getValue());
+            }
+            invalidateDispatchPlans(methodsInListeners.keySet());
+        } finally {
+            registryLock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the decisions that the {@link CacheVetoes} vetoers of the registered
+     * {@code object} have made so far, so that they are called again for the
+     * events that follow.
+     *
+     * @param object object whose veto decisions should be forgotten.
+     */
+    public void invalidateVetoDecisions(Object object) {
+        for (Class<?> eventType : handlersByType.eventTypes()) {
+            for (EventHandler handler : handlersByType.snapshot(eventType)) {
+                if (handler instanceof MemoizingEventHandler && handler.getTarget() == object) {
+                    ((MemoizingEventHandler) handler).invalidate();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the handlers of weakly registered objects that have been garbage
+     * collected, unless the registry is being changed by another thread, in
+     * which case they are removed on a later call.  As this is called for every
+     * post, it never waits for {@link #registryLock}.
+     */
+    private void expungeCollectedListeners() {
+        Reference<?> reference;
+        while ((reference = collectedListeners.poll()) != null) {
+            expiredListeners.add((ListenerReference) reference);
+        }
+        if (!expiredListeners.isEmpty() && registryLock.tryLock()) {
+            try {
+                removeCollectedListeners();
+            } finally {
+                registryLock.unlock();
             }
-            currentHandlers.removeAll(eventMethodsInListener);
         }
     }
 
+    /**
+     * Removes the handlers of all weakly registered objects that have been
+     * garbage collected. Must be called while holding {@link #registryLock}.
+     */
+    private void removeCollectedListeners() {
+        Reference<?> reference;
+        while ((reference = collectedListeners.poll()) != null) {
+            expiredListeners.add((ListenerReference) reference);
+        }
+        if (expiredListeners.isEmpty()) {
+            return;
+        }
+
+        SetMultimap<Class<?>, EventHandler> collected = LinkedHashMultimap.create();
+        ListenerReference listener;
+        while ((listener = expiredListeners.poll()) != null) {
+            collected.putAll(listener.handlers);
+        }
+        for (Entry<Class<?>, Collection<EventHandler>> entry : collected.asMap().entrySet()) {
+            handlersByType.removeAll(entry.getKey(), entry.getValue());
+        }
+        invalidateDispatchPlans(collected.keySet());
+    }
+
+    /**
+     * Finds the handler methods on all {@code objects}, keeping them in order of
+     * registration per event type.
+     */
+    private SetMultimap<Class<?>, EventHandler> findAllHandlers(Iterable<?> objects) {
+        SetMultimap<Class<?>, EventHandler> methodsInListeners = LinkedHashMultimap.create();
+        for (Object object : objects) {
+            methodsInListeners.putAll(finder.findAllHandlers(object));
+        }
+        return methodsInListeners;
+    }
+
     /**
      * Posts an event to all registered handlers.  This method will return
      * successfully after the event has been posted to all handlers, and
@@ -252,27 +449,41 @@ public class T2Bus {
      * @param event event to post.
      */
     public void post(Object event) {
-        Set<Class<?>> dispatchTypes = flattenHierarchy(event.getClass());
+        post(dispatchContext.get(), event);
+    }
+
+    /**
+     * Returns the dispatch state of the current thread on this bus.
+     */
+    DispatchContext currentContext() {
+        return dispatchContext.get();
+    }
 
-        boolean dispatched = false;
-        List<EventHandler> vetoers = newArrayList();
-        List<EventHandler> handlers = newArrayList();
+    private void post(DispatchContext context, Object event) {
+        post(context, event, getDispatchPlan(event.getClass()));
+    }
 
-        for (Class<?> eventType : dispatchTypes) {
-            Set<EventHandler> wrappers = getHandlersForEventType(eventType);
-            if (wrappers != null && !wrappers.isEmpty()) {
-                dispatched = true;
-                divvyUpWrappers(wrappers, vetoers, handlers);
+    private void post(DispatchContext context, Object event, DispatchPlan plan) {
+        Object recording = FlightRecorderEvents.instance().beginPost();
+        try {
+            DispatchMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.eventPosted(event.getClass());
+                if (plan.isDead()) {
+                    metrics.deadEvent(event.getClass());
+                }
             }
-        }
 
-        if (dispatched) {
-            enqueueEvent(event, vetoers, handlers);
-        } else if (!(event instanceof DeadEvent)) {
-            post(new DeadEvent(this, event));
-        }
+            if (!plan.isDead()) {
+                enqueueEvent(context, event, plan);
+            } else if (!(event instanceof DeadEvent)) {
+                post(context, new DeadEvent(this, event));
+            }
 
-        dispatchQueuedEvents();
+            dispatchQueuedEvents(context);
+        } finally {
+            FlightRecorderEvents.instance().endPost(recording, event.getClass(), plan.isDead());
+        }
     }
 
     /**
@@ -291,90 +502,341 @@ public class T2Bus {
      * @param eventHandlerStrategy the exceptionHandler that is used to handle any exceptions from subscribers.
      */
     public void post(Object event, EventHandlerStrategy eventHandlerStrategy) {
-        if (isDispatching.get()) {
+        DispatchContext context = dispatchContext.get();
+        if (context.dispatching) {
             throw new BusError("Cannot set a new ExceptionHandler when in a dispatch loop. Event = [%s]", event);
         }
-        this.eventHandler.set(eventHandlerStrategy);
-        post(event);
-        this.eventHandler.remove();
+        context.strategy = eventHandlerStrategy;
+        try {
+            post(context, event);
+        } finally {
+            context.strategy = defaultEventHandler;
+        }
+    }
+
+    /**
+     * Posts each of the {@code events} to all registered handlers, in iteration
+     * order.  Each event is dispatched exactly as if it were passed to
+     * {@link #post(Object)} in turn: vetoers are called first, and events posted
+     * by handlers are dispatched before the next event of the batch.
+     * <p/>
+     * <p>The handlers of a run of consecutive events of the same concrete
+     * class are resolved only once, as long as no handlers are registered or
+     * unregistered meanwhile, which makes this cheaper than posting a large
+     * number of events one by one.  Group events by class to benefit most.
+     *
+     * @param events events to post.
+     */
+    public void postAll(Iterable<?> events) {
+        postAll(dispatchContext.get(), events);
+    }
+
+    /**
+     * Posts each of the {@code events} to all registered handlers, as
+     * {@link #postAll(Iterable)} does.
+     * <p/>
+     * If an exception occurs in any handler, the passed in exceptionHandler
+     * will be used to handle the exception.
+     *
+     * @param events               events to post.
+     * @param eventHandlerStrategy the exceptionHandler that is used to handle any exceptions from subscribers.
+     */
+    public void postAll(Iterable<?> events, EventHandlerStrategy eventHandlerStrategy) {
+        DispatchContext context = dispatchContext.get();
+        if (context.dispatching) {
+            throw new BusError("Cannot set a new ExceptionHandler when in a dispatch loop. Events = [%s]", events);
+        }
+        context.strategy = eventHandlerStrategy;
+        try {
+            postAll(context, events);
+        } finally {
+            context.strategy = defaultEventHandler;
+        }
+    }
+
+    private void postAll(DispatchContext context, Iterable<?> events) {
+        Class<?> planClass = null;
+        DispatchPlan plan = null;
+        int planVersion = 0;
+        for (Object event : events) {
+            Class<?> eventClass = event.getClass();
+            // Read the version before resolving, so that a change made meanwhile resolves the plan again.
+            int version = registryVersion;
+            if (eventClass != planClass || version != planVersion) {
+                plan = getDispatchPlan(eventClass);
+                planClass = eventClass;
+                planVersion = version;
+            }
+            post(context, event, plan);
+        }
+    }
+
+    /**
+     * Retrieves the dispatch plan for events of {@code eventClass}, building it
+     * from the currently registered handlers if there is none cached.
+     *
+     * @param eventClass concrete class of the posted event.
+     * @return the plan, which is {@link DispatchPlan#DEAD} if no handler accepts the event.
+     */
+    DispatchPlan getDispatchPlan(Class<?> eventClass) {
+        expungeCollectedListeners();
+        DispatchPlan plan = dispatchPlans.getIfPresent(eventClass);
+        if (plan == null) {
+            registryLock.lock();
+            try {
+                plan = dispatchPlans.getIfPresent(eventClass);
+                if (plan == null) {
+                    plan = buildDispatchPlan(eventClass);
+                    dispatchPlans.put(eventClass, plan);
+                }
+            } finally {
+                registryLock.unlock();
+            }
+        }
+        return plan;
+    }
+
+    private DispatchPlan buildDispatchPlan(Class<?> eventClass) {
+        // A handler method takes a single event type, so the handlers of different types are distinct.
+        List<EventHandler> wrappers = Lists.newArrayList();
+        for (Class<?> eventType : flattenHierarchy(eventClass)) {
+            Collections.addAll(wrappers, handlersByType.snapshot(eventType));
+        }
+        return newDispatchPlan(wrappers);
+    }
+
+    /**
+     * Creates the dispatch plan for the distinct {@code wrappers} an event is to
+     * be dispatched to. This is provided as an override point for subclasses.
+     *
+     * @param wrappers all handlers that should receive the event.
+     * @return a new plan.
+     */
+    DispatchPlan newDispatchPlan(Collection<EventHandler> wrappers) {
+        return DispatchPlan.of(wrappers);
     }
 
-    private void divvyUpWrappers(Set<EventHandler> wrappers, List<EventHandler> vetoers, List<EventHandler> handlers) {
-        for (EventHandler wrapper : wrappers) {
-            if (wrapper.isVetoer()) {
-                vetoers.add(wrapper);
-            } else {
-                handlers.add(wrapper);
+    /**
+     * Drops the cached dispatch plans of all event classes that are assignable
+     * to any of the {@code eventTypes}, so that they are rebuilt once, on the
+     * next post of such an event, however many (un)registrations precede it.
+     * Must be called while holding {@link #registryLock}.
+     */
+    private void invalidateDispatchPlans(Set<Class<?>> eventTypes) {
+        registryVersion++;
+        for (Class<?> eventClass : dispatchPlans.asMap().keySet()) {
+            for (Class<?> eventType : eventTypes) {
+                if (eventType.isAssignableFrom(eventClass)) {
+                    dispatchPlans.invalidate(eventClass);
+                    break;
+                }
             }
         }
     }
 
     /**
      * Queue the {@code event} for dispatch during
-     * {@link #dispatchQueuedEvents()}. Events are queued in-order of occurrence
+     * {@link #dispatchQueuedEvents(DispatchContext)}. Events are queued in-order of occurrence
      * so they can be dispatched in the same order.
      */
-    void enqueueEvent(Object event, List<EventHandler> vetoers, List<EventHandler> handlers) {
-        eventsToDispatch.get().offer(new EventWithHandlers(event, vetoers, handlers));
+    void enqueueEvent(DispatchContext context, Object event, DispatchPlan plan) {
+        context.offer(event, plan);
     }
 
     /**
      * Drain the queue of events to be dispatched. As the queue is being drained,
      * new events may be posted to the end of the queue.
      */
-    void dispatchQueuedEvents() {
+    void dispatchQueuedEvents(DispatchContext context) {
         // don't dispatch if we're already dispatching, that would allow reentrancy
         // and out-of-order events. Instead, leave the events to be dispatched
         // after the in-progress dispatch is complete.
-        if (isDispatching.get()) {
+        if (context.dispatching) {
             return;
         }
 
-        isDispatching.set(true);
+        context.dispatching = true;
         try {
-            while (true) {
-                EventWithHandlers eventWithHandler = eventsToDispatch.get().poll();
-                if (eventWithHandler == null) {
-                    break;
-                }
-
-                dispatch(eventWithHandler);
-            }
+            drainQueuedEvents(context);
         } finally {
-            isDispatching.set(false);
+            context.dispatching = false;
         }
     }
 
-    void dispatch(EventWithHandlers eventWithHandler) {
-        boolean canContinue = true;
+    /**
+     * Dispatches the events queued in {@code context} until it is empty,
+     * regardless of whether the thread is marked as dispatching.
+     */
+    void drainQueuedEvents(DispatchContext context) {
+        EventWithHandlers eventWithHandler;
+        while ((eventWithHandler = context.peek()) != null) {
+            try {
+                dispatch(eventWithHandler, context.strategy);
+            } finally {
+                context.remove();
+            }
+        }
+    }
 
+    void dispatch(EventWithHandlers eventWithHandler, EventHandlerStrategy strategy) {
         Object event = eventWithHandler.event;
-        for (EventHandler vetoer : eventWithHandler.vetoers) {
-            canContinue = handle(event, vetoer);
-            if (!canContinue) break;
+        DispatchPlan plan = eventWithHandler.plan;
+        DispatchMetrics metrics = this.metrics;
+        Object recording = FlightRecorderEvents.instance().beginDispatch();
+        if (metrics == null && recording == null) {
+            if (passesVetoers(event, plan.vetoers, strategy)) {
+                deliver(event, plan.handlers, strategy);
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean vetoed = false;
+        try {
+            vetoed = !passesVetoers(event, plan.vetoers, strategy);
+            if (!vetoed) {
+                deliver(event, plan.handlers, strategy);
+            }
+        } finally {
+            if (metrics != null) {
+                metrics.eventDispatched(event.getClass(), vetoed, System.nanoTime() - start);
+            }
+            FlightRecorderEvents.instance().endDispatch(recording, event.getClass(), vetoed);
         }
+    }
 
-        if (canContinue) {
-            for (EventHandler handler : eventWithHandler.handlers) {
-                handle(event, handler);
+    /**
+     * Offers {@code event} to each of the {@code vetoers} in turn, until one of
+     * them vetoes it.
+     *
+     * @return {@code true} if none of the vetoers vetoed the event.
+     */
+    boolean passesVetoers(Object event, EventHandler[] vetoers, EventHandlerStrategy strategy) {
+        for (int i = 0; i < vetoers.length; i++) {
+            if (!handle(event, vetoers[i], strategy)) {
+                return false;
             }
         }
+        return true;
+    }
+
+    /**
+     * Delivers an event that passed all vetoers to the non-vetoing
+     * {@code handlers}. This method is an appropriate override point for
+     * subclasses that wish to deliver events elsewhere than on the posting thread.
+     */
+    void deliver(Object event, EventHandler[] handlers, EventHandlerStrategy strategy) {
+        for (int i = 0; i < handlers.length; i++) {
+            handle(event, handlers[i], strategy);
+        }
+    }
+
+    /**
+     * Dispatches {@code event} to the handler in {@code wrapper}.
+     *
+     * @param event    event to dispatch.
+     * @param wrapper  wrapper that will call the handler.
+     * @param strategy strategy of the posting thread, which handles the outcome of the call.
+     */
+    boolean handle(Object event, EventHandler wrapper, EventHandlerStrategy strategy) {
+        DispatchMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return wrapper.dispatch(event, strategy);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return wrapper.dispatch(event, strategy);
+        } finally {
+            metrics.eventHandled(wrapper, System.nanoTime() - start);
+        }
     }
 
     /**
-     * Dispatches {@code event} to the handler in {@code wrapper}.  This method
-     * is an appropriate override point for subclasses that wish to make
-     * event delivery asynchronous.
+     * Passes {@code batch} to the handler method of {@code handler} after
+     * {@code delayMillis}, unless it has been passed to it before that.  Once
+     * the batch flusher has been shut down, the batch is passed right away.
      *
-     * @param event   event to dispatch.
-     * @param wrapper wrapper that will call the handler.
+     * @param handler     the handler that started the batch.
+     * @param batch       the batch to flush.
+     * @param delayMillis the latency budget of the batch.
+     */
+    void scheduleBatchFlush(final BatchingEventHandler handler, final List<Object> batch, long delayMillis) {
+        Runnable flush = new Runnable() {
+            @Override
+            public void run() {
+                scheduledBatchFlushes.remove(this);
+                List<Object> expired = handler.takeExpired(batch);
+                if (expired == null) {
+                    return;
+                }
+                try {
+                    handle(expired, handler.getBatchHandler(), defaultEventHandler);
+                } catch (RuntimeException e) {
+                    logger.error("Could not flush batch of " + expired.size() + " events to handler " + handler, e);
+                }
+            }
+        };
+        ScheduledExecutorService flusher = batchFlusher();
+        if (flusher != null) {
+            scheduledBatchFlushes.add(flush);
+            try {
+                flusher.schedule(flush, delayMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // The flusher has been shut down meanwhile.
+            }
+        }
+        flush.run();
+    }
+
+    /**
+     * Stops the batch flusher, and flushes the batches that are waiting for
+     * their latency budget to expire, on the calling thread.  Batches started
+     * afterwards are flushed right away.  Called by the subclasses that can be
+     * shut down.
+     */
+    void shutdownBatchFlusher() {
+        ScheduledExecutorService flusher;
+        registryLock.lock();
+        try {
+            batchFlusherShutdown = true;
+            flusher = batchFlusher;
+            batchFlusher = null;
+        } finally {
+            registryLock.unlock();
+        }
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        for (Runnable flush : scheduledBatchFlushes) {
+            flush.run();
+        }
+    }
+
+    /**
+     * @return the batch flusher, or {@code null} if it has been shut down.
      */
-    boolean handle(Object event, EventHandler wrapper) {
-        return eventHandler.get().handle(event, wrapper);
+    private ScheduledExecutorService batchFlusher() {
+        ScheduledExecutorService flusher = batchFlusher;
+        if (flusher == null) {
+            registryLock.lock();
+            try {
+                flusher = batchFlusher;
+                if (flusher == null && !batchFlusherShutdown) {
+                    flusher = Executors.newSingleThreadScheduledExecutor(
+                            new ThreadFactoryBuilder().setNameFormat("t2bus-batch-flusher-%d").setDaemon(true).build());
+                    batchFlusher = flusher;
+                }
+            } finally {
+                registryLock.unlock();
+            }
+        }
+        return flusher;
     }
 
     /**
-     * Retrieves a mutable set of the currently registered handlers for
+     * Retrieves an immutable snapshot of the currently registered handlers for
      * {@code type}.  If no handlers are currently registered for {@code type},
      * this method may either return {@code null} or an empty set.
      *
@@ -386,14 +848,14 @@ public class T2Bus {
     }
 
     /**
-     * Creates a new Set for insertion into the handler map.  This is provided
-     * as an override point for subclasses. The returned set should support
-     * concurrent access.
+     * Creates a new Set to keep the handlers for one event type in.  This is
+     * provided as an override point for subclasses.  The set is only used by one
+     * thread at a time, and should keep its elements in order of insertion.
      *
      * @return a new, mutable set for handlers.
      */
     Set<EventHandler> newHandlerSet() {
-        return new CopyOnWriteArraySet<EventHandler>();
+        return newLinkedHashSet();
     }
 
     /**
@@ -413,18 +875,25 @@ public class T2Bus {
     }
 
     /**
-     * simple struct representing an event and its handlers
+     * Weak reference to an object registered through
+     * {@link #registerWeakly(Object)}, through which its handlers hold it.
      */
-    static class EventWithHandlers {
-        final Object event;
-        private final List<EventHandler> vetoers;
-        private final List<EventHandler> handlers;
+    private static final class ListenerReference extends WeakReference<Object> {
+        final SetMultimap<Class<?>, EventHandler> handlers;
 
-        public EventWithHandlers(Object event, List<EventHandler> vetoers, List<EventHandler> handlers) {
-            this.event = event;
-            this.vetoers = vetoers;
+        ListenerReference(Object listener, ReferenceQueue<Object> queue, SetMultimap<Class<?>, EventHandler> handlers) {
+            super(listener, queue);
             this.handlers = handlers;
         }
     }
 
+    /**
+     * simple struct representing an event and its handlers, reused by the
+     * {@link DispatchContext} for every event that passes through its slot
+     */
+    static class EventWithHandlers {
+        Object event;
+        DispatchPlan plan;
+    }
+
 }
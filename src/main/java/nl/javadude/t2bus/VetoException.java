@@ -5,6 +5,11 @@ import static java.lang.String.format;
 /**
  * Exception thrown by a method that is annotated with {@link Subscribe} which has {@link nl.javadude.t2bus.Subscribe#canVeto()}
  * set to true.
+ * <p/>
+ * <p>Vetoes are control flow rather than errors, so a VetoException does not
+ * record a stack trace.  This makes throwing one cheap, and allows a vetoer to
+ * throw the same preallocated instance for every event it vetoes.  Vetoers can
+ * also veto without throwing, by returning a {@link VetoResult}.
  *
  * @author Jeroen van Erp, jeroen@javadude.nl
  */
@@ -31,4 +36,14 @@ public final class VetoException extends Exception {
     public VetoException(Throwable cause) {
         super(cause);
     }
+
+    /**
+     * Does not record a stack trace, see the class documentation.
+     *
+     * @return this exception.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
 }
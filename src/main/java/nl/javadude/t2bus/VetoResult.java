@@ -0,0 +1,67 @@
+package nl.javadude.t2bus;
+
+/**
+ * The decision of a vetoer that vetoes by returning, instead of throwing a
+ * {@link VetoException}.
+ * <p/>
+ * <p>A handler method that has {@link Subscribe#canVeto()} set may return a
+ * {@code VetoResult}, or a {@code boolean} that is {@code false} to veto the
+ * event.  As nothing is thrown, vetoing this way is no more expensive than
+ * passing the event.  Results are immutable, so vetoers can keep the results
+ * they return in constants.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public final class VetoResult {
+    /**
+     * The event may be processed further.
+     */
+    public static final VetoResult PASSED = new VetoResult(false, null);
+
+    /**
+     * The event is vetoed, without a reason.
+     */
+    public static final VetoResult VETOED = new VetoResult(true, null);
+
+    private final boolean vetoed;
+    private final String reason;
+
+    private VetoResult(boolean vetoed, String reason) {
+        this.vetoed = vetoed;
+        this.reason = reason;
+    }
+
+    /**
+     * @param reason why the event is vetoed, for logging purposes.
+     * @return a result that vetoes the event.
+     */
+    public static VetoResult veto(String reason) {
+        return new VetoResult(true, reason);
+    }
+
+    public boolean isVetoed() {
+        return vetoed;
+    }
+
+    /**
+     * @return why the event was vetoed, or {@code null} if no reason was given.
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the exception a vetoer would have thrown to make this decision.
+     */
+    public VetoException toException() {
+        return new VetoException(reason);
+    }
+
+    @Override
+    public String toString() {
+        if (!vetoed) {
+            return "[passed]";
+        }
+        return reason == null ? "[vetoed]" : "[vetoed: " + reason + "]";
+    }
+}
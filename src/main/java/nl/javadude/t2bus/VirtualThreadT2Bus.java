@@ -0,0 +1,141 @@
+package nl.javadude.t2bus;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link AsyncT2Bus} that delivers each event to each non-vetoing handler on
+ * its own virtual thread, so that handlers blocking on I/O neither hold up the
+ * posting thread nor need a sized thread pool.
+ * <p/>
+ * <p>Handlers that are not marked {@link AllowConcurrentEvents} are still called
+ * for one event at a time, and in order.  Their deliveries go through a mailbox
+ * that a single virtual thread drains, rather than being serialized by a
+ * monitor, so virtual threads that block inside them do not pin their carrier
+ * thread.  Thread-safe handlers make no such guarantees.
+ * <p/>
+ * <p>When the runtime does not support virtual threads, deliveries run on a
+ * pool of at most {@link #FALLBACK_THREADS_PER_PROCESSOR} platform daemon
+ * threads per processor instead, and further deliveries wait in the queue of
+ * the pool until a thread is free. See {@link #isVirtualThreadSupported()}.
+ * <p/>
+ * <p>Unlike an {@link AsyncT2Bus}, this bus owns its executor, which is shut down
+ * together with the bus.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public class VirtualThreadT2Bus extends AsyncT2Bus {
+    /**
+     * Number of platform threads per processor that deliver events on runtimes
+     * without virtual threads.
+     */
+    public static final int FALLBACK_THREADS_PER_PROCESSOR = 4;
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new VirtualThreadT2Bus named "default".
+     */
+    public VirtualThreadT2Bus() {
+        this("default");
+    }
+
+    /**
+     * Creates a new VirtualThreadT2Bus with the given {@code identifier}.
+     *
+     * @param identifier a brief name for this bus, for logging purposes.  Should
+     *                   be a valid Java identifier.
+     */
+    public VirtualThreadT2Bus(String identifier) {
+        this(identifier, newDeliveryExecutor("t2bus-" + identifier + "-delivery-"));
+    }
+
+    private VirtualThreadT2Bus(String identifier, ExecutorService executor) {
+        super(identifier, executor);
+        this.executor = executor;
+    }
+
+    /**
+     * Whether deliveries run on virtual threads in this runtime.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.PER_TASK_EXECUTOR_FACTORY != null;
+    }
+
+    /**
+     * Stops accepting new events, and stops the delivery threads once the
+     * deliveries of events that were posted before have finished; use
+     * {@link #awaitTermination(long, TimeUnit)} to wait for them.
+     */
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        executor.shutdown();
+    }
+
+    @Override
+    boolean deliversThroughMailbox(EventHandler handler) {
+        return handler instanceof SynchronizedEventHandler;
+    }
+
+    private static ExecutorService newDeliveryExecutor(String threadNamePrefix) {
+        if (isVirtualThreadSupported()) {
+            return VirtualThreads.newThreadPerTaskExecutor(threadNamePrefix);
+        }
+        int threads = Runtime.getRuntime().availableProcessors() * FALLBACK_THREADS_PER_PROCESSOR;
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat(threadNamePrefix + "%d").setDaemon(true).build());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Looks up the virtual thread API reflectively, so this bus still loads on
+     * runtimes that predate it.
+     */
+    private static final class VirtualThreads {
+        private static final Method OF_VIRTUAL;
+        private static final Method NAME;
+        private static final Method FACTORY;
+        private static final Method PER_TASK_EXECUTOR_FACTORY;
+
+        static {
+            Method ofVirtual = null;
+            Method name = null;
+            Method factory = null;
+            Method perTaskExecutorFactory = null;
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                name = builder.getMethod("name", String.class, long.class);
+                factory = builder.getMethod("factory");
+                perTaskExecutorFactory = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                // Fails when virtual threads are a preview feature that is not enabled.
+                ofVirtual.invoke(null);
+            } catch (Exception e) {
+                perTaskExecutorFactory = null;
+            }
+            OF_VIRTUAL = ofVirtual;
+            NAME = name;
+            FACTORY = factory;
+            PER_TASK_EXECUTOR_FACTORY = perTaskExecutorFactory;
+        }
+
+        static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+            try {
+                Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), threadNamePrefix, 0L);
+                ThreadFactory threadFactory = (ThreadFactory) FACTORY.invoke(builder);
+                return (ExecutorService) PER_TASK_EXECUTOR_FACTORY.invoke(null, threadFactory);
+            } catch (Exception e) {
+                throw new BusError("Could not create a virtual thread executor", e);
+            }
+        }
+    }
+}
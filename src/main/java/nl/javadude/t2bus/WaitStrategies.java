@@ -0,0 +1,82 @@
+package nl.javadude.t2bus;
+
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The {@link WaitStrategy}s available to a {@link RingBufferT2Bus}, from the
+ * lowest latency to the lowest CPU usage.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public final class WaitStrategies {
+    private static final WaitStrategy BUSY_SPIN = new WaitStrategy() {
+        @Override
+        public void idle(int attempt) {
+        }
+
+        @Override
+        public String toString() {
+            return "busySpin";
+        }
+    };
+
+    private static final WaitStrategy YIELDING = new WaitStrategy() {
+        @Override
+        public void idle(int attempt) {
+            Thread.yield();
+        }
+
+        @Override
+        public String toString() {
+            return "yielding";
+        }
+    };
+
+    private WaitStrategies() {
+    }
+
+    /**
+     * Keeps polling without ever giving up the CPU. Gives the lowest latency,
+     * but keeps a core fully busy, even when no events are posted.
+     */
+    public static WaitStrategy busySpin() {
+        return BUSY_SPIN;
+    }
+
+    /**
+     * Yields the CPU to other threads between polls.
+     */
+    public static WaitStrategy yielding() {
+        return YIELDING;
+    }
+
+    /**
+     * Spins and yields for a short while, and then parks the thread for
+     * {@code parkNanos} between polls. Uses hardly any CPU when idle, at the cost
+     * of up to {@code parkNanos} latency for the first event after a quiet period.
+     *
+     * @param parkNanos the time to park the thread for.
+     */
+    public static WaitStrategy parking(final long parkNanos) {
+        checkArgument(parkNanos > 0, "parkNanos must be positive, was %s", parkNanos);
+        return new WaitStrategy() {
+            @Override
+            public void idle(int attempt) {
+                if (attempt < 100) {
+                    // spin
+                } else if (attempt < 200) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(parkNanos);
+                }
+            }
+
+            @Override
+            public String toString() {
+                return "parking(" + parkNanos + "ns)";
+            }
+        };
+    }
+}
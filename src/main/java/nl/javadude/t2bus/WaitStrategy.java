@@ -0,0 +1,17 @@
+package nl.javadude.t2bus;
+
+/**
+ * Decides what the dispatcher thread of a {@link RingBufferT2Bus} does while it
+ * waits for events to be published. Common strategies are available from
+ * {@link WaitStrategies}.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public interface WaitStrategy {
+    /**
+     * Called each time the calling thread finds it cannot make progress yet.
+     *
+     * @param attempt how many times in a row the thread has been waiting, starting at 0.
+     */
+    void idle(int attempt);
+}
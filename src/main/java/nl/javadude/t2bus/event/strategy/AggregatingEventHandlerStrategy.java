@@ -0,0 +1,312 @@
+package nl.javadude.t2bus.event.strategy;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import nl.javadude.t2bus.EventHandler;
+import nl.javadude.t2bus.VetoException;
+import nl.javadude.t2bus.VetoResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Reports failing handlers and vetoes without slowing down dispatch when they
+ * occur for every event.  Failures and vetoes are counted per handler method and
+ * exception type.  Per interval, only the first few of each kind are reported
+ * individually, on a background thread, and a summary of the counts is reported
+ * once the interval is over.
+ * <p/>
+ * <p>All strategies report on one shared background thread, so the reporting
+ * hooks should not block.  A strategy that is no longer referenced stops
+ * reporting once it is garbage collected; call {@link #shutdown()} before
+ * dropping it to report its last counts.
+ * <p/>
+ * <p>Like the other strategies, exceptions thrown by vetoers are rethrown.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public class AggregatingEventHandlerStrategy extends BaseEventHandlerStrategy {
+    private static final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("t2bus-failure-reporter-%d").setDaemon(true).build());
+
+    private final ConcurrentMap<FailureKind, Tally> tallies = new ConcurrentHashMap<FailureKind, Tally>();
+    private final int samplesPerInterval;
+    private final long intervalMillis;
+    private final Future<?> summaries;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile boolean shutdown;
+
+    /**
+     * Creates a strategy that reports one failure of each kind, and a summary,
+     * every 10 seconds.
+     */
+    public AggregatingEventHandlerStrategy() {
+        this(10, TimeUnit.SECONDS, 1);
+    }
+
+    /**
+     * @param interval           the interval after which the counts are summarized.
+     * @param unit               the unit of {@code interval}.
+     * @param samplesPerInterval the number of failures of each kind that are reported individually per interval.
+     */
+    public AggregatingEventHandlerStrategy(long interval, TimeUnit unit, int samplesPerInterval) {
+        checkArgument(interval > 0, "interval should be positive, was %s", interval);
+        checkArgument(samplesPerInterval >= 0, "samplesPerInterval cannot be negative, was %s", samplesPerInterval);
+        this.samplesPerInterval = samplesPerInterval;
+        this.intervalMillis = unit.toMillis(interval);
+        Summarizer summarizer = new Summarizer(this);
+        this.summaries = reporter.scheduleAtFixedRate(summarizer, interval, interval, unit);
+        summarizer.summaries = summaries;
+    }
+
+    @Override
+    protected void handleInvocationTargetException(Object event, EventHandler wrapper, InvocationTargetException e) {
+        if (wrapper.isVetoer()) {
+            super.handleInvocationTargetException(event, wrapper, e);
+        } else {
+            count(event, wrapper, e.getCause().getClass(), e.getCause());
+        }
+    }
+
+    @Override
+    protected boolean handleVetoException(Object event, EventHandler wrapper, VetoException e) {
+        if (!wrapper.isVetoer()) {
+            return super.handleVetoException(event, wrapper, e);
+        }
+        count(event, wrapper, VetoException.class, e);
+        return false;
+    }
+
+    @Override
+    protected boolean handleVetoResult(Object event, EventHandler wrapper, VetoResult result) {
+        count(event, wrapper, VetoException.class, result);
+        return false;
+    }
+
+    /**
+     * Summarizes the failures since the last summary, and stops reporting.
+     * Failures that occur afterwards are only counted.
+     */
+    public synchronized void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        summaries.cancel(false);
+        reporter.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    summarize();
+                } finally {
+                    terminated.countDown();
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until the last summary has been reported after {@link #shutdown()}.
+     *
+     * @return {@code false} if the timeout elapsed first.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Reports a single failure, on the background reporter.  Logs failures with
+     * their stack trace, and vetoes without.
+     *
+     * @param event   the event that the handler failed on or vetoed.
+     * @param handler the handler.
+     * @param cause   the exception thrown by the handler, a {@link VetoException} for vetoes.
+     *                Returned vetoes are reported as the exception the vetoer would have thrown.
+     */
+    protected void reportSample(Object event, EventHandler handler, Throwable cause) {
+        if (cause instanceof VetoException) {
+            logger.info("Event " + event + " was vetoed by handler " + handler + ": " + cause.getMessage());
+        } else {
+            logger.error("Could not dispatch event: " + event + " to handler " + handler, cause);
+        }
+    }
+
+    /**
+     * Reports the number of failures of one kind in the last interval, on the
+     * background reporter.
+     *
+     * @param handler        the handler method.
+     * @param exceptionType  the type of exception thrown by the handler, {@link VetoException} for vetoes.
+     * @param count          the number of failures.
+     * @param intervalMillis the length of the interval.
+     */
+    protected void reportSummary(Method handler, Class<? extends Throwable> exceptionType, long count, long intervalMillis) {
+        if (exceptionType == VetoException.class) {
+            logger.info("Handler " + handler + " vetoed " + count + " events in the last " + intervalMillis + " ms");
+        } else {
+            logger.warn("Handler " + handler + " failed " + count + " times with " + exceptionType.getName()
+                    + " in the last " + intervalMillis + " ms");
+        }
+    }
+
+    /**
+     * @param cause the exception thrown by the handler, or the {@link VetoResult} it returned.
+     */
+    private void count(final Object event, final EventHandler wrapper, Class<? extends Throwable> exceptionType,
+                       final Object cause) {
+        FailureKind kind = new FailureKind(wrapper.getMethod(), exceptionType);
+        Tally tally;
+        while (!(tally = tallyOf(kind)).increment()) {
+            // Retired by the last summary, which is about to remove it.
+            tallies.remove(kind, tally);
+        }
+
+        if (!shutdown && tally.samples.get() < samplesPerInterval && tally.samples.incrementAndGet() <= samplesPerInterval) {
+            reporter.execute(new Runnable() {
+                @Override
+                public void run() {
+                    reportSample(event, wrapper, cause instanceof VetoResult
+                            ? ((VetoResult) cause).toException() : (Throwable) cause);
+                }
+            });
+        }
+    }
+
+    private Tally tallyOf(FailureKind kind) {
+        Tally tally = tallies.get(kind);
+        if (tally == null) {
+            Tally newTally = new Tally();
+            tally = tallies.putIfAbsent(kind, newTally);
+            if (tally == null) {
+                tally = newTally;
+            }
+        }
+        return tally;
+    }
+
+    /**
+     * @return the number of kinds of failures that are currently counted.
+     */
+    int countedKinds() {
+        return tallies.size();
+    }
+
+    private void summarize() {
+        for (Map.Entry<FailureKind, Tally> entry : tallies.entrySet()) {
+            Tally tally = entry.getValue();
+            tally.samples.set(0);
+            // Stop counting kinds of failures that did not occur during the last interval.
+            if (tally.count.compareAndSet(0, Tally.RETIRED)) {
+                tallies.remove(entry.getKey(), tally);
+                continue;
+            }
+            long count = tally.count.getAndSet(0);
+            if (count > 0) {
+                try {
+                    reportSummary(entry.getKey().method, entry.getKey().exceptionType, count, intervalMillis);
+                } catch (RuntimeException e) {
+                    logger.error("Could not report failures of handler " + entry.getKey().method, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A handler method and the type of exception it throws.
+     */
+    private static final class FailureKind {
+        final Method method;
+        final Class<? extends Throwable> exceptionType;
+
+        FailureKind(Method method, Class<? extends Throwable> exceptionType) {
+            this.method = method;
+            this.exceptionType = exceptionType;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FailureKind)) {
+                return false;
+            }
+            FailureKind other = (FailureKind) obj;
+            return method.equals(other.method) && exceptionType == other.exceptionType;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * method.hashCode() + exceptionType.hashCode();
+        }
+    }
+
+    private static final class Tally {
+        /**
+         * Count of a tally that has been removed, and no longer counts failures.
+         */
+        static final long RETIRED = -1;
+
+        /**
+         * Failures since the last summary.
+         */
+        final AtomicLong count = new AtomicLong();
+
+        /**
+         * Failures reported individually since the last summary.
+         */
+        final AtomicInteger samples = new AtomicInteger();
+
+        /**
+         * Counts a failure, unless the tally has been retired.
+         *
+         * @return {@code false} if the tally has been retired.
+         */
+        boolean increment() {
+            long current;
+            do {
+                current = count.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+
+    /**
+     * Periodically summarizes the failures of a strategy, without keeping it
+     * from being garbage collected.
+     */
+    private static final class Summarizer implements Runnable {
+        private final WeakReference<AggregatingEventHandlerStrategy> strategy;
+        volatile Future<?> summaries;
+
+        Summarizer(AggregatingEventHandlerStrategy strategy) {
+            this.strategy = new WeakReference<AggregatingEventHandlerStrategy>(strategy);
+        }
+
+        @Override
+        public void run() {
+            AggregatingEventHandlerStrategy current = strategy.get();
+            if (current != null) {
+                current.summarize();
+            } else if (summaries != null) {
+                summaries.cancel(false);
+            }
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregatingEventHandlerStrategy.class);
+}
@@ -3,6 +3,7 @@ package nl.javadude.t2bus.event.strategy;
 import nl.javadude.t2bus.EventHandler;
 import nl.javadude.t2bus.EventHandlerStrategy;
 import nl.javadude.t2bus.VetoException;
+import nl.javadude.t2bus.VetoResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,14 +12,16 @@ import java.lang.reflect.InvocationTargetException;
 public abstract class BaseEventHandlerStrategy implements EventHandlerStrategy {
     @Override
     public boolean handle(Object event, EventHandler wrapper) {
+        VetoResult result;
         try {
-            wrapper.handleEvent(event);
+            result = wrapper.handleEventForResult(event);
         } catch (VetoException e) {
             return handleVetoException(event, wrapper, e);
         } catch (InvocationTargetException e) {
             handleInvocationTargetException(event, wrapper, e);
+            return true;
         }
-        return true;
+        return !result.isVetoed() || handleVetoResult(event, wrapper, result);
     }
 
     protected void handleInvocationTargetException(Object event, EventHandler wrapper, InvocationTargetException e) {
@@ -33,11 +36,20 @@ public abstract class BaseEventHandlerStrategy implements EventHandlerStrategy {
 
     protected boolean handleVetoException(Object event, EventHandler wrapper, VetoException e) {
         if (wrapper.isVetoer()) {
-            logger.error("Event " + event + " was vetoed by handler " + wrapper, e);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Event " + event + " was vetoed by handler " + wrapper, e);
+            }
             return false;
         }
         throw new Error("non-vetoer " + wrapper + " should not be able to throw a VetoException", e);
     }
 
+    protected boolean handleVetoResult(Object event, EventHandler wrapper, VetoResult result) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Event " + event + " was vetoed by handler " + wrapper + ": " + result);
+        }
+        return false;
+    }
+
     private static final Logger logger = LoggerFactory.getLogger(BaseEventHandlerStrategy.class);
 }
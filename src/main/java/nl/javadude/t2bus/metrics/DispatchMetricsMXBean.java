@@ -0,0 +1,35 @@
+package nl.javadude.t2bus.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management interface of {@link HistogramDispatchMetrics}.  Counts are
+ * indexed by the name of the concrete event class.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public interface DispatchMetricsMXBean {
+    Map<String, Long> getPostedEvents();
+
+    Map<String, Long> getDispatchedEvents();
+
+    Map<String, Long> getVetoedEvents();
+
+    Map<String, Long> getDeadEvents();
+
+    /**
+     * @return the latency of dispatching an event, from its first vetoer to its last handler.
+     */
+    HandlerLatency getDispatchLatency();
+
+    /**
+     * @return the latency of each handler and vetoer that has been called.
+     */
+    List<HandlerLatency> getHandlerLatencies();
+
+    /**
+     * Clears all counts and latencies.
+     */
+    void reset();
+}
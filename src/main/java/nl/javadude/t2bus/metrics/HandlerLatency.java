@@ -0,0 +1,61 @@
+package nl.javadude.t2bus.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Statistics on the calls to one event handler, as collected by
+ * {@link HistogramDispatchMetrics}.  All durations are in nanoseconds.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public class HandlerLatency {
+    private final String handler;
+    private final long count;
+    private final long meanNanos;
+    private final long medianNanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    @ConstructorProperties({"handler", "count", "meanNanos", "medianNanos", "p99Nanos", "maxNanos"})
+    public HandlerLatency(String handler, long count, long meanNanos, long medianNanos, long p99Nanos, long maxNanos) {
+        this.handler = handler;
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.medianNanos = medianNanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return the handler method and the object it is called on.
+     */
+    public String getHandler() {
+        return handler;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getMedianNanos() {
+        return medianNanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "[latency of " + handler + ": count=" + count + ", mean=" + meanNanos + "ns, median=" + medianNanos
+                + "ns, p99=" + p99Nanos + "ns, max=" + maxNanos + "ns]";
+    }
+}
@@ -0,0 +1,161 @@
+package nl.javadude.t2bus.metrics;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import nl.javadude.t2bus.DispatchMetrics;
+import nl.javadude.t2bus.EventHandler;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link DispatchMetrics} that counts posted, dispatched, vetoed and dead
+ * events per event class, and keeps a latency histogram per event handler.
+ * All counters are updated without locking.  Event classes and handlers are
+ * referenced weakly, so they can still be garbage collected.
+ * <p/>
+ * <p>Use {@link #registerMBean(String)} to expose the metrics through JMX:
+ * <pre>
+ * HistogramDispatchMetrics metrics = new HistogramDispatchMetrics();
+ * metrics.registerMBean("orders");
+ * bus.setDispatchMetrics(metrics);
+ * </pre>
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+public class HistogramDispatchMetrics implements DispatchMetrics, DispatchMetricsMXBean {
+    /**
+     * Indexes of the counters per event class.
+     */
+    private static final int POSTED = 0, DISPATCHED = 1, VETOED = 2, DEAD = 3;
+
+    private final LoadingCache<Class<?>, AtomicLongArray> countersByType = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<Class<?>, AtomicLongArray>() {
+                @Override
+                public AtomicLongArray load(Class<?> eventClass) {
+                    return new AtomicLongArray(4);
+                }
+            });
+
+    private final LoadingCache<EventHandler, NamedHistogram> latencyByHandler = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<EventHandler, NamedHistogram>() {
+                @Override
+                public NamedHistogram load(EventHandler handler) {
+                    return new NamedHistogram(nameOf(handler));
+                }
+            });
+
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+
+    @Override
+    public void eventPosted(Class<?> eventClass) {
+        countersByType.getUnchecked(eventClass).incrementAndGet(POSTED);
+    }
+
+    @Override
+    public void deadEvent(Class<?> eventClass) {
+        countersByType.getUnchecked(eventClass).incrementAndGet(DEAD);
+    }
+
+    @Override
+    public void eventDispatched(Class<?> eventClass, boolean vetoed, long nanos) {
+        AtomicLongArray counters = countersByType.getUnchecked(eventClass);
+        counters.incrementAndGet(DISPATCHED);
+        if (vetoed) {
+            counters.incrementAndGet(VETOED);
+        }
+        dispatchLatency.record(nanos);
+    }
+
+    @Override
+    public void eventHandled(EventHandler handler, long nanos) {
+        latencyByHandler.getUnchecked(handler).histogram.record(nanos);
+    }
+
+    @Override
+    public Map<String, Long> getPostedEvents() {
+        return countsOf(POSTED);
+    }
+
+    @Override
+    public Map<String, Long> getDispatchedEvents() {
+        return countsOf(DISPATCHED);
+    }
+
+    @Override
+    public Map<String, Long> getVetoedEvents() {
+        return countsOf(VETOED);
+    }
+
+    @Override
+    public Map<String, Long> getDeadEvents() {
+        return countsOf(DEAD);
+    }
+
+    private Map<String, Long> countsOf(int counter) {
+        Map<String, Long> counts = Maps.newTreeMap();
+        for (Map.Entry<Class<?>, AtomicLongArray> entry : countersByType.asMap().entrySet()) {
+            counts.put(entry.getKey().getName(), entry.getValue().get(counter));
+        }
+        return counts;
+    }
+
+    @Override
+    public HandlerLatency getDispatchLatency() {
+        return dispatchLatency.snapshot("dispatch");
+    }
+
+    @Override
+    public List<HandlerLatency> getHandlerLatencies() {
+        List<HandlerLatency> latencies = Lists.newArrayList();
+        for (NamedHistogram handler : latencyByHandler.asMap().values()) {
+            latencies.add(handler.histogram.snapshot(handler.name));
+        }
+        return latencies;
+    }
+
+    @Override
+    public void reset() {
+        countersByType.invalidateAll();
+        latencyByHandler.invalidateAll();
+        dispatchLatency.reset();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server, under the name
+     * {@code nl.javadude.t2bus:type=DispatchMetrics,bus=<busIdentifier>}.
+     *
+     * @param busIdentifier identifier of the bus these metrics are set on.
+     * @return the name under which the metrics were registered.
+     * @throws JMException if the metrics could not be registered.
+     */
+    public ObjectName registerMBean(String busIdentifier) throws JMException {
+        ObjectName name = new ObjectName("nl.javadude.t2bus:type=DispatchMetrics,bus=" + ObjectName.quote(busIdentifier));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    private static String nameOf(EventHandler handler) {
+        Object target = handler.getTarget();
+        String targetName = target == null ? "<collected>" : target.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(target));
+        return handler.getMethod().getName() + "(" + handler.getMethod().getParameterTypes()[0].getName() + ") on " + targetName;
+    }
+
+    private static final class NamedHistogram {
+        final String name;
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        NamedHistogram(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package nl.javadude.t2bus.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, with a bucket per power
+ * of two.  Percentiles are reported as the upper bound of their bucket, so they
+ * overestimate by less than a factor two.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+final class LatencyHistogram {
+    /**
+     * Bucket {@code i > 0} counts the durations in {@code [2^(i-1), 2^i)}; bucket
+     * {@code 0} counts durations of zero.
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos));
+        totalNanos.addAndGet(nanos);
+        long max;
+        while ((max = maxNanos.get()) < nanos && !maxNanos.compareAndSet(max, nanos)) {
+            // Lost a race with another thread recording a duration, retry.
+        }
+    }
+
+    void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * @return the current statistics, which are not atomic with respect to
+     *         concurrent recordings.
+     */
+    HandlerLatency snapshot(String handler) {
+        long[] counts = new long[buckets.length()];
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        long max = maxNanos.get();
+        return new HandlerLatency(handler, count, count == 0 ? 0 : totalNanos.get() / count,
+                percentile(counts, count, 0.5, max), percentile(counts, count, 0.99, max), max);
+    }
+
+    private static long percentile(long[] counts, long count, double quantile, long max) {
+        long rank = (long) Math.ceil(count * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                long upperBound = i == 0 ? 0 : (i == 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upperBound, max);
+            }
+        }
+        return 0;
+    }
+}
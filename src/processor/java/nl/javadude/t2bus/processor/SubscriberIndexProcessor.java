@@ -0,0 +1,292 @@
+package nl.javadude.t2bus.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code nl.javadude.t2bus.SubscriberIndex} for each listener class
+ * in the compilation, so that the bus neither has to scan the class reflectively
+ * nor has to generate invokers for its handler methods at runtime.
+ * <p/>
+ * <p>A class is indexed when it has at least one public method annotated with
+ * {@code @Subscribe}, either directly or on a method it overrides, and when the
+ * generated index can call all of those methods directly.  Classes that cannot
+ * be indexed, such as private or anonymous classes, are left to the reflective
+ * scan of the bus.  The index of a class is named
+ * {@code <ListenerClass>$$T2BusIndex}, and lives in the package of the class.
+ * As the processor only runs on compilations that use {@code @Subscribe}, a
+ * class that only inherits its annotations from precompiled classes may be left
+ * to the scan as well.
+ *
+ * @author Jeroen van Erp, jeroen@javadude.nl
+ */
+@SupportedAnnotationTypes(SubscriberIndexProcessor.SUBSCRIBE)
+public class SubscriberIndexProcessor extends AbstractProcessor {
+    static final String SUBSCRIBE = "nl.javadude.t2bus.Subscribe";
+    private static final String ALLOW_CONCURRENT_EVENTS = "nl.javadude.t2bus.AllowConcurrentEvents";
+    private static final String INDEX_SUFFIX = "$$T2BusIndex";
+
+    private final Set<String> generated = new HashSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            processType(type);
+        }
+        return true;
+    }
+
+    private void processType(TypeElement type) {
+        if (type.getKind() == ElementKind.CLASS || type.getKind() == ElementKind.ENUM) {
+            List<Subscriber> subscribers = findSubscribers(type);
+            if (subscribers != null && !subscribers.isEmpty()) {
+                writeIndex(type, subscribers);
+            }
+        }
+        for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+            processType(member);
+        }
+    }
+
+    /**
+     * @return the subscribers of {@code type}, or {@code null} if it cannot be indexed.
+     */
+    private List<Subscriber> findSubscribers(TypeElement type) {
+        Elements elements = processingEnv.getElementUtils();
+        PackageElement pkg = elements.getPackageOf(type);
+        List<Subscriber> subscribers = new ArrayList<Subscriber>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            AnnotationMirror subscribe = findSubscribe(type, method);
+            if (subscribe == null) {
+                continue;
+            }
+            if (!isAccessible(type, pkg)
+                    || method.getModifiers().contains(Modifier.STATIC)
+                    || method.getParameters().size() != 1
+                    || !isAccessible((TypeElement) method.getEnclosingElement(), pkg)) {
+                return null;
+            }
+            TypeMirror parameterType = processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType());
+            if (!isAccessible(parameterType, pkg)) {
+                return null;
+            }
+            subscribers.add(new Subscriber(method, parameterType, subscribe, findAnnotation(method, ALLOW_CONCURRENT_EVENTS) != null));
+        }
+        return subscribers;
+    }
+
+    /**
+     * Finds the {@code @Subscribe} annotation on {@code method}, or on the most
+     * specific method in a supertype of {@code type} that it overrides.
+     */
+    private AnnotationMirror findSubscribe(TypeElement type, ExecutableElement method) {
+        AnnotationMirror subscribe = findAnnotation(method, SUBSCRIBE);
+        if (subscribe != null) {
+            return subscribe;
+        }
+
+        Types types = processingEnv.getTypeUtils();
+        Elements elements = processingEnv.getElementUtils();
+        Deque<TypeMirror> supertypes = new ArrayDeque<TypeMirror>(types.directSupertypes(type.asType()));
+        Set<Element> seen = new HashSet<Element>();
+        while (!supertypes.isEmpty()) {
+            TypeMirror supertype = supertypes.removeFirst();
+            if (supertype.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            TypeElement supertypeElement = (TypeElement) ((DeclaredType) supertype).asElement();
+            if (!seen.add(supertypeElement)) {
+                continue;
+            }
+            for (ExecutableElement candidate : ElementFilter.methodsIn(supertypeElement.getEnclosedElements())) {
+                if (candidate.getSimpleName().equals(method.getSimpleName())
+                        && candidate.getModifiers().contains(Modifier.PUBLIC)
+                        && elements.overrides(method, candidate, type)) {
+                    subscribe = findAnnotation(candidate, SUBSCRIBE);
+                    if (subscribe != null) {
+                        return subscribe;
+                    }
+                }
+            }
+            supertypes.addAll(types.directSupertypes(supertype));
+        }
+        return null;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private boolean isAccessible(TypeMirror type, PackageElement pkg) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return isAccessible(((ArrayType) type).getComponentType(), pkg);
+            case DECLARED:
+                return isAccessible((TypeElement) ((DeclaredType) type).asElement(), pkg);
+            default:
+                return type.getKind().isPrimitive();
+        }
+    }
+
+    /**
+     * Whether code in {@code pkg} can refer to {@code type}.
+     */
+    private boolean isAccessible(TypeElement type, PackageElement pkg) {
+        Elements elements = processingEnv.getElementUtils();
+        for (Element e = type; e.getKind().isClass() || e.getKind().isInterface(); e = e.getEnclosingElement()) {
+            Set<Modifier> modifiers = e.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(e).equals(pkg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeIndex(TypeElement type, List<Subscriber> subscribers) {
+        Elements elements = processingEnv.getElementUtils();
+        PackageElement pkg = elements.getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        String indexName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + INDEX_SUFFIX;
+        String qualifiedIndexName = packageName.isEmpty() ? indexName : packageName + "." + indexName;
+        if (!generated.add(qualifiedIndexName)) {
+            return;
+        }
+
+        String listenerName = type.getQualifiedName().toString();
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * Subscriber index of {@link ").append(listenerName).append("}, generated by ")
+                .append(getClass().getName()).append(".\n")
+                .append(" */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(indexName).append(" implements nl.javadude.t2bus.SubscriberIndex {\n")
+                .append("    @Override\n")
+                .append("    public nl.javadude.t2bus.SubscriberInfo[] getSubscribers() {\n")
+                .append("        return new nl.javadude.t2bus.SubscriberInfo[]{\n");
+        for (Subscriber subscriber : subscribers) {
+            appendSubscriber(source, listenerName, subscriber);
+        }
+        source.append("        };\n")
+                .append("    }\n")
+                .append("}\n");
+
+        try {
+            Writer writer = processingEnv.getFiler().createSourceFile(qualifiedIndexName, type).openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Could not generate subscriber index " + qualifiedIndexName + ": " + e, type);
+        }
+    }
+
+    private void appendSubscriber(StringBuilder source, String listenerName, Subscriber subscriber) {
+        String parameterName = sourceName(subscriber.parameterType);
+        String castName = subscriber.parameterType.getKind().isPrimitive()
+                ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) subscriber.parameterType).getQualifiedName().toString()
+                : parameterName;
+        String methodName = subscriber.method.getSimpleName().toString();
+        String argument = "java.lang.Object".equals(castName) ? "event" : "(" + castName + ") event";
+        source.append("                new nl.javadude.t2bus.SubscriberInfo(\"").append(methodName).append("\", ")
+                .append(parameterName).append(".class, ")
+                .append(annotationValue(subscriber.subscribe, "canVeto")).append(", ")
+                .append(annotationValue(subscriber.subscribe, "priority")).append(", ")
+                .append(subscriber.allowConcurrentEvents).append(",\n")
+                .append("                        new nl.javadude.t2bus.HandlerInvoker() {\n")
+                .append("                            @Override\n")
+                .append("                            public void invoke(Object target, Object event) throws Throwable {\n")
+                .append("                                ((").append(listenerName).append(") target).").append(methodName)
+                .append("(").append(argument).append(");\n")
+                .append("                            }\n")
+                .append("                        }),\n");
+    }
+
+    private Object annotationValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("No value for " + name + " in " + mirror);
+    }
+
+    /**
+     * The name of an erased type in source code, without any type annotations.
+     */
+    private static String sourceName(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return sourceName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            default:
+                return type.getKind().name().toLowerCase();
+        }
+    }
+
+    private static final class Subscriber {
+        final ExecutableElement method;
+        final TypeMirror parameterType;
+        final AnnotationMirror subscribe;
+        final boolean allowConcurrentEvents;
+
+        Subscriber(ExecutableElement method, TypeMirror parameterType, AnnotationMirror subscribe, boolean allowConcurrentEvents) {
+            this.method = method;
+            this.parameterType = parameterType;
+            this.subscribe = subscribe;
+            this.allowConcurrentEvents = allowConcurrentEvents;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package nl.javadude.t2bus;
+
+import nl.javadude.t2bus.event.strategy.LoggingEventHandlerStrategy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that posting to an already known event type does not allocate.
+ */
+public class AllocationFreePostTest {
+    private static final int WARMUP_POSTS = 200000;
+    private static final int MEASURED_POSTS = 100000;
+
+    private final T2Bus bus = new T2Bus();
+    private com.sun.management.ThreadMXBean threadBean;
+
+    @Before
+    public void setUp() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        bus.register(new CountingHandler());
+    }
+
+    @Test
+    public void shouldNotAllocateWhenPostingKnownEventType() {
+        Long event = 42L;
+        for (int i = 0; i < WARMUP_POSTS; i++) {
+            bus.post(event);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_POSTS; i++) {
+            bus.post(event);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat("Bytes allocated per post", allocated / MEASURED_POSTS, lessThan(1L));
+    }
+
+    @Test
+    public void shouldNotAllocateWhenVetoerReturnsVeto() {
+        bus.register(new ReturningVetoer());
+        EventHandlerStrategy strategy = new LoggingEventHandlerStrategy() {
+            @Override
+            protected boolean handleVetoResult(Object event, EventHandler wrapper, VetoResult result) {
+                return false;
+            }
+        };
+        Integer event = 42;
+        for (int i = 0; i < WARMUP_POSTS; i++) {
+            bus.post(event, strategy);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_POSTS; i++) {
+            bus.post(event, strategy);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat("Bytes allocated per vetoed post", allocated / MEASURED_POSTS, lessThan(1L));
+    }
+
+    public static class ReturningVetoer {
+        @Subscribe(canVeto = true)
+        public boolean passes(Integer event) {
+            return false;
+        }
+    }
+
+    public static class CountingHandler {
+        long count;
+
+        @Subscribe
+        public void observe(Long event) {
+        }
+
+        @Subscribe
+        public void count(Long event) {
+            count++;
+        }
+
+        @Subscribe
+        @AllowConcurrentEvents
+        public void countConcurrently(Number event) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package nl.javadude.t2bus;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+
+/**
+ * Test case for {@link AnnotatedHandlerFinder}.
+ */
+public class AnnotatedHandlerFinderTest {
+    private final AnnotatedHandlerFinder finder = new AnnotatedHandlerFinder();
+
+    @Test
+    public void shouldFindHandlerAnnotatedOnInterface() {
+        Multimap<Class<?>, EventHandler> handlers = finder.findAllHandlers(new InterfaceListener());
+
+        assertThat(handlers.get(String.class), hasSize(1));
+        assertThat(handlers.get(Integer.class), hasSize(1));
+        assertThat("Should use the annotations of the implementation.",
+                Iterables.getOnlyElement(handlers.get(Integer.class)), instanceOf(SynchronizedEventHandler.class));
+    }
+
+    @Test
+    public void shouldShareMethodsBetweenInstancesOfListenerClass() {
+        EventHandler first = Iterables.getOnlyElement(finder.findAllHandlers(new StringCatcher()).values());
+        EventHandler second = Iterables.getOnlyElement(finder.findAllHandlers(new StringCatcher()).values());
+
+        assertThat(second.getMethod(), sameInstance(first.getMethod()));
+        assertThat("Handlers of different instances should differ.", first.equals(second), equalTo(false));
+    }
+
+    @Test
+    public void shouldUseSubscriberIndexWhenPresent() {
+        Multimap<Class<?>, EventHandler> handlers = finder.findAllHandlers(new IndexedListener());
+
+        assertThat(handlers.get(String.class), hasSize(1));
+        EventHandler handler = Iterables.getOnlyElement(handlers.get(String.class));
+        assertThat(handler.isVetoer(), equalTo(true));
+        assertThat(handler.getPriority(), equalTo(3));
+        assertThat("Should call the method through the generated index.",
+                HandlerInvokers.forMethod(handler.getMethod()).getClass().getName(),
+                startsWith(IndexedListener.class.getName() + SubscriberIndex.CLASS_NAME_SUFFIX));
+    }
+
+    @Test
+    public void shouldCallGeneratedInvokerOfProcessedListener() throws Exception {
+        Method method = StringCatcher.class.getMethod("hereHaveAString", String.class);
+        // The anonymous subclass has no index, and is scanned reflectively.
+        finder.findAllHandlers(new StringCatcher() {
+        });
+        finder.findAllHandlers(new StringCatcher());
+
+        assertThat(HandlerInvokers.forMethod(method).getClass().getName(),
+                startsWith(StringCatcher.class.getName() + SubscriberIndex.CLASS_NAME_SUFFIX));
+    }
+
+    public interface Listener {
+        @Subscribe
+        void onString(String s);
+    }
+
+    public static class InterfaceListener implements Listener {
+        @Override
+        @AllowConcurrentEvents
+        public void onString(String s) {
+        }
+
+        @Subscribe
+        public void onInteger(Integer i) {
+        }
+
+        public void notAHandler(Long l) {
+        }
+    }
+}
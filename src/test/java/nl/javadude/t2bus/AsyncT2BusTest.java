@@ -0,0 +1,173 @@
+package nl.javadude.t2bus;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.fail;
+
+/**
+ * Test case for {@link AsyncT2Bus}.
+ */
+public class AsyncT2BusTest {
+    private static final String EVENT = "Hello";
+
+    private FakeExecutor executor;
+    private AsyncT2Bus bus;
+
+    @Before
+    public void setUp() {
+        executor = new FakeExecutor();
+        bus = new AsyncT2Bus("test-bus", executor);
+    }
+
+    @Test
+    public void shouldDeliverOnExecutor() {
+        StringCatcher catcher = new StringCatcher();
+        bus.register(catcher);
+
+        bus.post(EVENT);
+
+        assertThat("No event should be delivered before the executor runs.", catcher.getEvents(), hasSize(0));
+        assertThat("One delivery should be handed to the executor.", executor.tasks, hasSize(1));
+
+        executor.runAll();
+
+        assertThat("Only one event should be delivered.", catcher.getEvents(), hasSize(1));
+        assertThat("Correct string should be delivered.", catcher.getEvents().get(0), equalTo(EVENT));
+    }
+
+    @Test
+    public void shouldHandOnlyOneDrainOfAHandlerToExecutor() {
+        StringCatcher catcher = new StringCatcher();
+        bus.register(catcher);
+
+        bus.post("first");
+        bus.post("second");
+
+        assertThat("Second event should wait in the mailbox of the handler.", executor.tasks, hasSize(1));
+
+        executor.runAll();
+
+        assertThat(catcher.getEvents(), equalTo(Arrays.asList("first", "second")));
+    }
+
+    @Test
+    public void shouldDeliverEventsToHandlerInOrderOnMultiThreadedExecutor() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AsyncT2Bus pooledBus = new AsyncT2Bus("test-bus", pool);
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+        pooledBus.register(new Object() {
+            @Subscribe
+            @AllowConcurrentEvents
+            public void receive(Integer i) {
+                received.add(i);
+            }
+        });
+
+        List<Integer> posted = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            pooledBus.post(i);
+            posted.add(i);
+        }
+        pooledBus.shutdown();
+        try {
+            assertThat(pooledBus.awaitTermination(5, TimeUnit.SECONDS), equalTo(true));
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(received, equalTo(posted));
+    }
+
+    @Test
+    public void shouldVetoOnPostingThread() {
+        StringCatcher catcher = new StringCatcher();
+        StringVetoer vetoer = new StringVetoer();
+        bus.register(catcher);
+        bus.register(vetoer);
+
+        bus.post(EVENT);
+
+        assertThat("Should have vetoed event before post returned", vetoer.getVetoed(), hasSize(1));
+        assertThat("Vetoed event should not be handed to the executor.", executor.tasks, hasSize(0));
+    }
+
+    @Test
+    public void shouldAwaitDeliveriesInFlight() throws InterruptedException {
+        bus.register(new StringCatcher());
+        bus.post(EVENT);
+        bus.shutdown();
+
+        assertThat("Delivery is still in flight.", bus.awaitTermination(10, TimeUnit.MILLISECONDS), equalTo(false));
+
+        executor.runAll();
+
+        assertThat("No delivery is in flight anymore.", bus.awaitTermination(10, TimeUnit.MILLISECONDS), equalTo(true));
+    }
+
+    @Test
+    public void shouldNotCountRejectedDeliveriesAsInFlight() throws InterruptedException {
+        AsyncT2Bus rejectingBus = new AsyncT2Bus("test-bus", new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        });
+        rejectingBus.register(new StringCatcher());
+
+        try {
+            rejectingBus.post(EVENT);
+            fail("Rejection of the delivery should be rethrown");
+        } catch (RejectedExecutionException expected) {
+            // OK.
+        }
+        rejectingBus.shutdown();
+
+        assertThat(rejectingBus.awaitTermination(10, TimeUnit.MILLISECONDS), equalTo(true));
+    }
+
+    @Test
+    public void shouldNotAcceptEventsWhenShutdown() {
+        StringCatcher catcher = new StringCatcher();
+        bus.register(catcher);
+        bus.shutdown();
+
+        try {
+            bus.post(EVENT);
+            fail("Posting to a shut down bus succeeded");
+        } catch (IllegalStateException expected) {
+            // OK.
+        }
+        assertThat(executor.tasks, hasSize(0));
+    }
+
+    static class FakeExecutor implements Executor {
+        final List<Runnable> tasks = Lists.newArrayList();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            tasks.clear();
+        }
+    }
+}
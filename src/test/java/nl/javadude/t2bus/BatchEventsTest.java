@@ -0,0 +1,135 @@
+package nl.javadude.t2bus;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Test case for {@link BatchEvents} handlers.
+ */
+public class BatchEventsTest {
+    private T2Bus bus;
+
+    @Before
+    public void setUp() {
+        bus = new T2Bus("test-bus");
+    }
+
+    @Test
+    public void shouldDeliverFullBatchOnPostingThread() {
+        BatchCatcher catcher = new BatchCatcher();
+        bus.register(catcher);
+
+        bus.post("one");
+        bus.post(2);
+        bus.post("two");
+
+        assertThat("Full batch should be delivered.", catcher.batches, hasSize(1));
+        assertThat(catcher.batches.get(0), equalTo((List<String>) Lists.newArrayList("one", "two")));
+        assertThat("Batch should be delivered on the posting thread.", catcher.threads.get(0), equalTo(Thread.currentThread()));
+    }
+
+    @Test
+    public void shouldFlushBatchWhenLatencyBudgetExpires() throws InterruptedException {
+        BatchCatcher catcher = new BatchCatcher();
+        bus.register(catcher);
+
+        bus.post("one");
+
+        assertThat("Partial batch should be flushed.", catcher.flushed.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(catcher.batches.get(0), equalTo((List<String>) Lists.newArrayList("one")));
+    }
+
+    @Test
+    public void shouldFlushPendingBatchOnShutdown() {
+        AsyncT2Bus asyncBus = new AsyncT2Bus("test-bus", MoreExecutors.sameThreadExecutor());
+        SlowBatchCatcher catcher = new SlowBatchCatcher();
+        asyncBus.register(catcher);
+
+        asyncBus.post("one");
+        asyncBus.shutdown();
+
+        assertThat("Pending batch should be flushed by shutdown.", catcher.batches, hasSize(1));
+        assertThat(catcher.batches.get(0), equalTo((List<String>) Lists.newArrayList("one")));
+        assertThat(catcher.threads.get(0), equalTo(Thread.currentThread()));
+    }
+
+    @Test
+    public void shouldFlushBatchStartedAfterShutdownRightAway() throws InterruptedException {
+        final List<Runnable> deliveries = Lists.newArrayList();
+        AsyncT2Bus asyncBus = new AsyncT2Bus("test-bus", new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                deliveries.add(command);
+            }
+        });
+        SlowBatchCatcher catcher = new SlowBatchCatcher();
+        asyncBus.register(catcher);
+
+        asyncBus.post("one");
+        asyncBus.shutdown();
+        for (Runnable delivery : deliveries) {
+            delivery.run();
+        }
+
+        assertThat("Batch started after shutdown should be flushed right away.", catcher.batches, hasSize(1));
+        assertThat(catcher.threads.get(0), equalTo(Thread.currentThread()));
+        assertThat(asyncBus.awaitTermination(1, TimeUnit.SECONDS), equalTo(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowBatchingVetoers() {
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            @BatchEvents
+            public void veto(List<String> events) throws VetoException {
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldOnlyBatchIntoLists() {
+        bus.register(new Object() {
+            @Subscribe
+            @BatchEvents
+            public void notAList(String event) {
+            }
+        });
+    }
+
+    public static class BatchCatcher {
+        final List<List<String>> batches = Lists.newCopyOnWriteArrayList();
+        final List<Thread> threads = Lists.newCopyOnWriteArrayList();
+        final CountDownLatch flushed = new CountDownLatch(1);
+
+        @Subscribe
+        @BatchEvents(maxSize = 2, maxLatencyMillis = 50)
+        public void onStrings(List<String> events) {
+            batches.add(events);
+            threads.add(Thread.currentThread());
+            flushed.countDown();
+        }
+    }
+
+    public static class SlowBatchCatcher {
+        final List<List<String>> batches = Lists.newCopyOnWriteArrayList();
+        final List<Thread> threads = Lists.newCopyOnWriteArrayList();
+
+        @Subscribe
+        @BatchEvents(maxSize = 100, maxLatencyMillis = 60000)
+        public void onStrings(List<String> events) {
+            batches.add(events);
+            threads.add(Thread.currentThread());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package nl.javadude.t2bus;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Test case for {@link AllowConcurrentEvents} handlers with a maximum concurrency.
+ */
+public class BoundedConcurrencyTest {
+    private final T2Bus bus = new T2Bus("test-bus");
+
+    @Test
+    public void shouldNotExceedMaxConcurrency() throws InterruptedException {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger received = new AtomicInteger();
+        bus.register(new Object() {
+            @Subscribe
+            @AllowConcurrentEvents(maxConcurrency = 2)
+            public void handle(String s) throws InterruptedException {
+                int now = running.incrementAndGet();
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), now));
+                }
+                Thread.sleep(5);
+                running.decrementAndGet();
+                received.incrementAndGet();
+            }
+        });
+
+        List<Thread> posters = Lists.newArrayList();
+        for (int i = 0; i < 6; i++) {
+            Thread poster = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 10; j++) {
+                        bus.post("event");
+                    }
+                }
+            });
+            posters.add(poster);
+            poster.start();
+        }
+        for (Thread poster : posters) {
+            poster.join(10000);
+        }
+
+        assertThat("All events should have been received.", received.get(), equalTo(60));
+        assertThat(maxRunning.get(), lessThanOrEqualTo(2));
+    }
+
+    @Test
+    public void shouldQueueEventsWhenSaturated() throws InterruptedException {
+        final List<String> received = Lists.newCopyOnWriteArrayList();
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        bus.register(new Object() {
+            @Subscribe
+            @AllowConcurrentEvents(maxConcurrency = 1, whenSaturated = SaturationPolicy.QUEUE)
+            public void handle(String s) throws InterruptedException {
+                received.add(s);
+                busy.countDown();
+                release.await();
+            }
+        });
+
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.post("a");
+            }
+        });
+        first.start();
+        assertThat("Handler should be busy with the first event.", busy.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        bus.post("b");
+        bus.post("c");
+        assertThat("Posts should return before the handler received them.", received, equalTo((List<String>) Lists.newArrayList("a")));
+
+        release.countDown();
+        first.join(5000);
+
+        assertThat(received, equalTo((List<String>) Lists.newArrayList("a", "b", "c")));
+    }
+
+    @Test
+    public void shouldSkipHandlerWhenInterruptedWhileBlocked() throws InterruptedException {
+        final List<String> received = Lists.newCopyOnWriteArrayList();
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        bus.register(new Object() {
+            @Subscribe
+            @AllowConcurrentEvents(maxConcurrency = 1)
+            public void handle(String s) throws InterruptedException {
+                received.add(s);
+                busy.countDown();
+                release.await();
+            }
+        });
+
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.post("a");
+            }
+        });
+        first.start();
+        assertThat("Handler should be busy with the first event.", busy.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        Thread.currentThread().interrupt();
+        bus.post("b");
+        assertThat("Poster should keep its interrupt status.", Thread.interrupted(), equalTo(true));
+
+        release.countDown();
+        first.join(5000);
+
+        assertThat(received, equalTo((List<String>) Lists.newArrayList("a")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowBoundedBatchingHandlers() {
+        bus.register(new Object() {
+            @Subscribe
+            @AllowConcurrentEvents(maxConcurrency = 1)
+            @BatchEvents(maxSize = 10)
+            public void handle(List<String> events) {
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowBoundedVetoersWithCachedDecisions() {
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            @AllowConcurrentEvents(maxConcurrency = 1)
+            @CacheVetoes(by = CacheVetoesTest.ByTenant.class)
+            public void veto(String s) throws VetoException {
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowQueueingVetoers() {
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            @AllowConcurrentEvents(maxConcurrency = 1, whenSaturated = SaturationPolicy.QUEUE)
+            public void veto(String s) throws VetoException {
+            }
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package nl.javadude.t2bus;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test case for {@link CacheVetoes} vetoers.
+ */
+public class CacheVetoesTest {
+    private final T2Bus bus = new T2Bus("test-bus");
+
+    @Test
+    public void shouldOnlyCallVetoerOncePerKey() {
+        TenantVetoer vetoer = new TenantVetoer();
+        StringCatcher catcher = new StringCatcher();
+        bus.register(vetoer);
+        bus.register(catcher);
+
+        bus.post("a:1");
+        bus.post("b:1");
+        bus.post("a:2");
+        bus.post("b:2");
+
+        assertThat(vetoer.calls, equalTo(2));
+        assertThat(catcher.getEvents(), contains("a:1", "a:2"));
+    }
+
+    @Test
+    public void shouldRethrowCachedVetoException() {
+        final List<String> calls = Lists.newArrayList();
+        StringCatcher catcher = new StringCatcher();
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            @CacheVetoes(by = ByTenant.class)
+            public void veto(String event) throws VetoException {
+                calls.add(event);
+                throw new VetoException(event);
+            }
+        });
+        bus.register(catcher);
+
+        bus.post("a:1");
+        bus.post("a:2");
+
+        assertThat(calls, contains("a:1"));
+        assertThat(catcher.getEvents().size(), equalTo(0));
+    }
+
+    @Test
+    public void shouldCallVetoerAgainOnceInvalidated() {
+        TenantVetoer vetoer = new TenantVetoer();
+        StringCatcher catcher = new StringCatcher();
+        bus.register(vetoer);
+        bus.register(catcher);
+
+        bus.post("b:1");
+        vetoer.enabled.add("b");
+        bus.post("b:2");
+        bus.invalidateVetoDecisions(vetoer);
+        bus.post("b:3");
+
+        assertThat(vetoer.calls, equalTo(2));
+        assertThat(catcher.getEvents(), contains("b:3"));
+    }
+
+    @Test
+    public void shouldForgetDecisionsAfterExpiry() throws InterruptedException {
+        ExpiringVetoer vetoer = new ExpiringVetoer();
+        bus.register(vetoer);
+
+        bus.post("a:1");
+        bus.post("a:2");
+        Thread.sleep(50);
+        bus.post("a:3");
+
+        assertThat(vetoer.calls, equalTo(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowCachingNonVetoers() {
+        bus.register(new Object() {
+            @Subscribe
+            @CacheVetoes(by = ByTenant.class)
+            public void handle(String event) {
+            }
+        });
+    }
+
+    @Test
+    public void shouldCallVetoerOnceForConcurrentMissesOfSameKey() throws InterruptedException {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            @AllowConcurrentEvents
+            @CacheVetoes(by = ByTenant.class)
+            public boolean tenantEnabled(String event) throws InterruptedException {
+                calls.incrementAndGet();
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return true;
+            }
+        });
+
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.post("a:1");
+            }
+        });
+        first.start();
+        assertThat(entered.await(5, TimeUnit.SECONDS), equalTo(true));
+        Thread second = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.post("a:2");
+            }
+        });
+        second.start();
+        // Give the second poster time to miss the key while the vetoer is still deciding.
+        Thread.sleep(100);
+        release.countDown();
+        first.join(5000);
+        second.join(5000);
+
+        assertThat(calls.get(), equalTo(1));
+    }
+
+    public static class TenantVetoer {
+        final Set<String> enabled = newHashSet("a");
+        int calls;
+
+        @Subscribe(canVeto = true)
+        @CacheVetoes(by = ByTenant.class, maximumSize = 10)
+        public boolean tenantEnabled(String event) {
+            calls++;
+            return enabled.contains(new ByTenant().keyOf(event));
+        }
+    }
+
+    public static class ExpiringVetoer {
+        int calls;
+
+        @Subscribe(canVeto = true)
+        @CacheVetoes(by = ByTenant.class, expireAfterWriteMillis = 10)
+        public boolean tenantEnabled(String event) {
+            calls++;
+            return true;
+        }
+    }
+
+    public static class ByTenant implements KeyExtractor<String> {
+        @Override
+        public Object keyOf(String event) {
+            return event.substring(0, event.indexOf(':'));
+        }
+    }
+}
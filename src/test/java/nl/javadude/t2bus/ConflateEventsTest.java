@@ -0,0 +1,119 @@
+package nl.javadude.t2bus;
+
+import com.google.common.collect.Lists;
+import nl.javadude.t2bus.event.strategy.LoggingEventHandlerStrategy;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Test case for {@link ConflateEvents} handlers.
+ */
+public class ConflateEventsTest {
+    private final T2Bus bus = new T2Bus("test-bus");
+
+    @Test
+    public void shouldOnlyDeliverLatestPendingEventPerKey() throws InterruptedException {
+        final PriceListener listener = new PriceListener();
+        bus.register(listener);
+
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.post(new Price("a", 1));
+            }
+        });
+        first.start();
+        assertThat("Handler should be busy with the first event.", listener.busy.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        bus.post(new Price("a", 2));
+        bus.post(new Price("b", 1));
+        bus.post(new Price("a", 3));
+        listener.release.countDown();
+        first.join(5000);
+
+        assertThat(listener.received, equalTo((List<String>) Lists.newArrayList("a=1", "a=3", "b=1")));
+    }
+
+    @Test
+    public void shouldDeliverEachEventWhenNotBusy() {
+        PriceListener listener = new PriceListener();
+        listener.release.countDown();
+        bus.register(listener);
+
+        bus.post(new Price("a", 1));
+        bus.post(new Price("a", 2));
+
+        assertThat(listener.received, equalTo((List<String>) Lists.newArrayList("a=1", "a=2")));
+    }
+
+    @Test
+    public void shouldHandleFailuresOfConflatedEventsThroughStrategy() {
+        final List<String> failures = Lists.newArrayList();
+        bus.register(new Object() {
+            @Subscribe
+            @ConflateEvents(by = BySymbol.class)
+            public void onPrice(Price price) {
+                throw new IllegalStateException(price.symbol);
+            }
+        });
+
+        EventHandlerStrategy strategy = new LoggingEventHandlerStrategy() {
+            @Override
+            protected void handleInvocationTargetException(Object event, EventHandler wrapper, InvocationTargetException e) {
+                failures.add(e.getCause().getMessage());
+            }
+        };
+        bus.post(new Price("a", 1), strategy);
+        bus.post(new Price("b", 1), strategy);
+
+        assertThat(failures, equalTo((List<String>) Lists.newArrayList("a", "b")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowConflatingVetoers() {
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            @ConflateEvents(by = BySymbol.class)
+            public void veto(Price price) throws VetoException {
+            }
+        });
+    }
+
+    public static class Price {
+        final String symbol;
+        final int value;
+
+        Price(String symbol, int value) {
+            this.symbol = symbol;
+            this.value = value;
+        }
+    }
+
+    public static class BySymbol implements KeyExtractor<Price> {
+        @Override
+        public Object keyOf(Price event) {
+            return event.symbol;
+        }
+    }
+
+    public static class PriceListener {
+        final List<String> received = Lists.newCopyOnWriteArrayList();
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Subscribe
+        @ConflateEvents(by = BySymbol.class)
+        public void onPrice(Price price) throws InterruptedException {
+            received.add(price.symbol + "=" + price.value);
+            busy.countDown();
+            release.await();
+        }
+    }
+}
@@ -112,6 +112,21 @@ public class EventHandlerTest {
         fail("Handlers whose methods throw Errors must rethrow them");
     }
 
+    /**
+     * Checks that handler methods that cannot be called through a generated
+     * invoker are still called, through reflection.
+     */
+    @Test
+    public void testPrimitiveArgumentMethodCall() throws Exception {
+        Method method = getClass().getMethod("primitiveRecordingMethod", int.class);
+        EventHandler handler = new EventHandler(this, method, false);
+
+        handler.handleEvent(42);
+
+        assertThat("Handler must call provided method.", methodCalled);
+        assertThat("Handler argument must be the unboxed event.", methodArgument.equals(42));
+    }
+
     /**
      * Gets a reference to {@link #recordingMethod(Object)}.
      *
@@ -196,6 +211,10 @@ public class EventHandlerTest {
         methodArgument = arg;
     }
 
+    public void primitiveRecordingMethod(int arg) {
+        recordingMethod(arg);
+    }
+
     public void exceptionThrowingMethod(Object arg) throws Exception {
         throw new IntentionalException();
     }
@@ -0,0 +1,12 @@
+package nl.javadude.t2bus;
+
+/**
+ * A listener whose subscriber index is generated by the annotation processor
+ * when compiling the tests.
+ */
+public class IndexedListener {
+    @Subscribe(canVeto = true, priority = 3)
+    @AllowConcurrentEvents
+    public void onString(String s) throws VetoException {
+    }
+}
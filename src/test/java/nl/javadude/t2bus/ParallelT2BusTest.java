@@ -0,0 +1,144 @@
+package nl.javadude.t2bus;
+
+import nl.javadude.t2bus.event.strategy.ThrowingEventHandlerStrategy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.fail;
+
+/**
+ * Test case for {@link ParallelT2Bus}.
+ */
+public class ParallelT2BusTest {
+    private static final int HANDLERS = 4;
+
+    @Test
+    public void shouldRunConcurrentHandlersInParallel() {
+        ExecutorService executor = Executors.newFixedThreadPool(HANDLERS);
+        ParallelT2Bus bus = new ParallelT2Bus("test-bus", executor);
+        // Every handler waits for all others to have started, which only completes when they run in parallel.
+        CountDownLatch started = new CountDownLatch(HANDLERS);
+        Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        for (int i = 0; i < HANDLERS; i++) {
+            bus.register(new Rendezvous(started, threads));
+        }
+
+        try {
+            bus.post("Hello");
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat("All handlers should have run.", started.getCount(), equalTo(0L));
+        assertThat("Every handler should run on its own thread.", threads, hasSize(HANDLERS));
+    }
+
+    @Test
+    public void shouldDispatchEventsPostedOnPoolThreadsAfterCurrentEvent() {
+        ExecutorService executor = Executors.newFixedThreadPool(HANDLERS);
+        final ParallelT2Bus bus = new ParallelT2Bus("test-bus", executor);
+        final CountDownLatch started = new CountDownLatch(HANDLERS);
+        final AtomicInteger delivered = new AtomicInteger();
+        final List<Integer> deliveredBeforeNested = Collections.synchronizedList(new ArrayList<Integer>());
+        for (int i = 0; i < HANDLERS; i++) {
+            bus.register(new Object() {
+                @Subscribe
+                @AllowConcurrentEvents
+                public void repost(String s) throws InterruptedException {
+                    started.countDown();
+                    started.await(5, TimeUnit.SECONDS);
+                    bus.post(s.length());
+                    delivered.incrementAndGet();
+                }
+            });
+        }
+        bus.register(new Object() {
+            @Subscribe
+            public void nested(Integer i) {
+                deliveredBeforeNested.add(delivered.get());
+            }
+        });
+
+        try {
+            bus.post("Hello");
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat("Nested events should only be dispatched once all handlers received the current event.",
+                deliveredBeforeNested, equalTo(Collections.nCopies(HANDLERS, HANDLERS)));
+    }
+
+    @Test
+    public void shouldRunAllHandlersOnPosterWhenExecutorDoesNotRunThem() {
+        ParallelT2Bus bus = new ParallelT2Bus("test-bus", new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                // Never runs the command, like a saturated pool.
+            }
+        });
+        StringCatcher first = new StringCatcher();
+        StringCatcher second = new StringCatcher();
+        bus.register(first);
+        bus.register(second);
+
+        bus.post("Hello");
+
+        assertThat(first.getEvents(), hasSize(1));
+        assertThat(second.getEvents(), hasSize(1));
+    }
+
+    @Test
+    public void shouldRethrowStrategyExceptionOnPoster() {
+        ParallelT2Bus bus = new ParallelT2Bus("test-bus");
+        final AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < HANDLERS; i++) {
+            bus.register(new Object() {
+                @Subscribe
+                public void fail(String s) {
+                    calls.incrementAndGet();
+                    throw new IllegalStateException(s);
+                }
+            });
+        }
+
+        try {
+            bus.post("Hello", new ThrowingEventHandlerStrategy());
+            fail("Exception of handler should be rethrown");
+        } catch (RuntimeException expected) {
+            assertThat("All handlers should have completed first.", calls.get(), equalTo(HANDLERS));
+        }
+    }
+
+    public static class Rendezvous {
+        private final CountDownLatch started;
+        private final Set<Thread> threads;
+
+        Rendezvous(CountDownLatch started, Set<Thread> threads) {
+            this.started = started;
+            this.threads = threads;
+        }
+
+        @Subscribe
+        @AllowConcurrentEvents
+        public void meet(String s) throws InterruptedException {
+            threads.add(Thread.currentThread());
+            started.countDown();
+            started.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package nl.javadude.t2bus;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import nl.javadude.t2bus.event.strategy.ThrowingEventHandlerStrategy;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test case for {@link QueueEvents} handlers.
+ */
+public class QueueEventsTest {
+    private final T2Bus bus = new T2Bus("test-bus");
+
+    @Test
+    public void shouldNotBlockPostersWhileHandlerIsBusy() throws InterruptedException {
+        final OrderListener listener = new OrderListener();
+        bus.register(listener);
+
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.post("a");
+            }
+        });
+        first.start();
+        assertThat("Handler should be busy with the first event.", listener.busy.await(5, TimeUnit.SECONDS), equalTo(true));
+
+        bus.post("b");
+        bus.post("c");
+        assertThat("Posts should return before the handler received them.", listener.received, equalTo((List<String>) Lists.newArrayList("a")));
+
+        listener.release.countDown();
+        first.join(5000);
+
+        assertThat(listener.received, equalTo((List<String>) Lists.newArrayList("a", "b", "c")));
+    }
+
+    @Test
+    public void shouldDeliverEachEventWhenNotBusy() {
+        OrderListener listener = new OrderListener();
+        listener.release.countDown();
+        bus.register(listener);
+
+        bus.post("a");
+        bus.post("b");
+
+        assertThat(listener.received, equalTo((List<String>) Lists.newArrayList("a", "b")));
+    }
+
+    @Test
+    public void shouldHandleFailureWithStrategyOfPoster() {
+        bus.register(new Object() {
+            @Subscribe
+            @QueueEvents
+            public void fail(String s) {
+                throw new IllegalStateException(s);
+            }
+        });
+
+        try {
+            bus.post("a", new ThrowingEventHandlerStrategy());
+            fail("Should have received BusException");
+        } catch (BusException expected) {
+            // OK.
+        }
+        bus.post("b");
+    }
+
+    @Test
+    public void shouldHandDrainingOverToNextPoster() throws InterruptedException {
+        final Map<String, Thread> handledOn = new ConcurrentHashMap<String, Thread>();
+        final Map<String, CountDownLatch> busy = ImmutableMap.of("a", new CountDownLatch(1), "b", new CountDownLatch(1));
+        final Map<String, CountDownLatch> release = ImmutableMap.of("a", new CountDownLatch(1), "b", new CountDownLatch(1));
+        bus.register(new Object() {
+            @Subscribe
+            @QueueEvents
+            public void onOrder(String order) throws InterruptedException {
+                handledOn.put(order, Thread.currentThread());
+                if (busy.containsKey(order)) {
+                    busy.get(order).countDown();
+                    release.get(order).await(5, TimeUnit.SECONDS);
+                }
+            }
+        });
+
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.post("a");
+            }
+        });
+        first.start();
+        assertThat(busy.get("a").await(5, TimeUnit.SECONDS), equalTo(true));
+        bus.post("b");
+        release.get("a").countDown();
+        assertThat("First poster should deliver the event queued while it was busy.", busy.get("b").await(5, TimeUnit.SECONDS), equalTo(true));
+
+        Thread third = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                bus.post("c");
+            }
+        });
+        third.start();
+        // Give the third poster time to take over while the first is still busy.
+        Thread.sleep(100);
+        release.get("b").countDown();
+        first.join(5000);
+        third.join(5000);
+
+        assertThat(handledOn.get("b"), equalTo(first));
+        assertThat("Third poster should have taken over.", handledOn.get("c"), equalTo(third));
+    }
+
+    @Test
+    public void shouldOnlyRethrowFailureOfOwnEvent() throws InterruptedException {
+        final List<String> received = Lists.newCopyOnWriteArrayList();
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        bus.register(new Object() {
+            @Subscribe
+            @QueueEvents
+            public void onOrder(String order) throws InterruptedException {
+                received.add(order);
+                busy.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                if (order.equals("b")) {
+                    throw new IllegalStateException(order);
+                }
+            }
+        });
+        final AtomicReference<Throwable> thrown = new AtomicReference<Throwable>();
+
+        Thread first = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    bus.post("a", new ThrowingEventHandlerStrategy());
+                } catch (Throwable t) {
+                    thrown.set(t);
+                }
+            }
+        });
+        first.start();
+        assertThat(busy.await(5, TimeUnit.SECONDS), equalTo(true));
+        bus.post("b", new ThrowingEventHandlerStrategy());
+        release.countDown();
+        first.join(5000);
+
+        assertThat(received, equalTo((List<String>) Lists.newArrayList("a", "b")));
+        assertThat("Failure for another poster's event should not be rethrown.", thrown.get(), nullValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowQueuedVetoers() {
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            @QueueEvents
+            public void veto(String s) throws VetoException {
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowQueuedConcurrentHandlers() {
+        bus.register(new Object() {
+            @Subscribe
+            @QueueEvents
+            @AllowConcurrentEvents
+            public void handle(String s) {
+            }
+        });
+    }
+
+    public static class OrderListener {
+        final List<String> received = Lists.newCopyOnWriteArrayList();
+        final CountDownLatch busy = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Subscribe
+        @QueueEvents
+        public void onOrder(String order) throws InterruptedException {
+            received.add(order);
+            busy.countDown();
+            release.await();
+        }
+    }
+}
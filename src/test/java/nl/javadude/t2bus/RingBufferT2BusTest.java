@@ -0,0 +1,190 @@
+package nl.javadude.t2bus;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+
+/**
+ * Test case for {@link RingBufferT2Bus}.
+ */
+public class RingBufferT2BusTest {
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 10000;
+
+    private RingBufferT2Bus bus;
+
+    @Before
+    public void setUp() {
+        bus = new RingBufferT2Bus("test-bus", 64, WaitStrategies.parking(1000));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        bus.shutdown();
+        bus.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldDeliverEventsOfAllProducersInOrder() throws InterruptedException {
+        SequenceRecorder recorder = new SequenceRecorder();
+        bus.register(recorder);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = Lists.newArrayList();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        bus.post(new long[]{producer, i});
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        bus.shutdown();
+
+        assertThat("Dispatcher should stop once all events are dispatched.", bus.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertThat("All events of each producer should be delivered in order.", recorder.next[p], equalTo((long) EVENTS_PER_PRODUCER));
+        }
+        assertThat("No events should be delivered out of order.", recorder.outOfOrder, equalTo(0));
+    }
+
+    @Test
+    public void shouldDispatchReentrantEventsAfterCurrentEvent() throws InterruptedException {
+        final List<Object> received = Lists.newArrayList();
+        bus.register(new Object() {
+            @Subscribe
+            public void onString(String s) {
+                received.add(s);
+                bus.post(s.length());
+                received.add(s + " done");
+            }
+
+            @Subscribe
+            public void onInteger(Integer i) {
+                received.add(i);
+            }
+        });
+
+        bus.post("one");
+        bus.shutdown();
+        bus.awaitTermination(1, TimeUnit.SECONDS);
+
+        assertThat(received, equalTo((List<Object>) Lists.<Object>newArrayList("one", "one done", 3)));
+    }
+
+    @Test
+    public void shouldBeAbleToVetoEvent() throws InterruptedException {
+        StringCatcher catcher = new StringCatcher();
+        StringVetoer vetoer = new StringVetoer();
+        bus.register(catcher);
+        bus.register(vetoer);
+
+        bus.post("Hello");
+        bus.shutdown();
+        bus.awaitTermination(1, TimeUnit.SECONDS);
+
+        assertThat("Should have vetoed event", vetoer.getVetoed(), hasSize(1));
+        assertThat("Should not have caught vetoed event", catcher.getEvents(), hasSize(0));
+    }
+
+    @Test
+    public void shouldNotAcceptEventsWhenShutdown() {
+        bus.shutdown();
+        try {
+            bus.post("Hello");
+            fail("Posting to a shut down bus succeeded");
+        } catch (IllegalStateException expected) {
+            // OK.
+        }
+    }
+
+    @Test
+    public void shouldCallSameHandlerAfterRegistrationsChange() throws InterruptedException {
+        final List<EventHandler> called = Lists.newArrayList();
+        EventHandlerStrategy strategy = new EventHandlerStrategy() {
+            @Override
+            public boolean handle(Object event, EventHandler wrapper) {
+                if (wrapper.getTarget() instanceof StringCatcher) {
+                    called.add(wrapper);
+                }
+                return true;
+            }
+        };
+        bus.register(new StringCatcher());
+
+        bus.post("first", strategy);
+        bus.register(new Object() {
+            @Subscribe
+            public void onObject(Object o) {
+            }
+        });
+        bus.post("second", strategy);
+        bus.shutdown();
+        bus.awaitTermination(1, TimeUnit.SECONDS);
+
+        assertThat(called, hasSize(2));
+        assertThat("A rebuilt plan should keep the handler of the earlier plan.", called.get(1), sameInstance(called.get(0)));
+    }
+
+    @Test
+    public void shouldStartDispatcherOnFirstPost() throws InterruptedException {
+        StringCatcher catcher = new StringCatcher();
+        bus.register(catcher);
+        assertThat("Dispatcher should not run before an event is posted.", isDispatcherRunning(), equalTo(false));
+
+        bus.post("Hello");
+
+        assertThat(isDispatcherRunning(), equalTo(true));
+        bus.shutdown();
+        assertThat(bus.awaitTermination(1, TimeUnit.SECONDS), equalTo(true));
+        assertThat(catcher.getEvents(), hasSize(1));
+    }
+
+    private static boolean isDispatcherRunning() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("t2bus-test-bus-dispatcher")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+        public static class SequenceRecorder {
+        final long[] next = new long[PRODUCERS];
+        int outOfOrder;
+
+        @Subscribe
+        public void record(long[] event) {
+            int producer = (int) event[0];
+            if (event[1] != next[producer]) {
+                outOfOrder++;
+            }
+            next[producer] = event[1] + 1;
+        }
+    }
+}
@@ -19,9 +19,11 @@ package nl.javadude.t2bus;
 import com.google.common.collect.Lists;
 import nl.javadude.t2bus.event.strategy.ExceptionHandler;
 import nl.javadude.t2bus.event.strategy.ExceptionHandlerEventHandlerStrategy;
+import nl.javadude.t2bus.event.strategy.ThrowingEventHandlerStrategy;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
@@ -210,6 +212,122 @@ public class T2BusTest {
         assertThat("Shouldn't catch any more events when unregistered.", catcher2.getEvents(), equalTo(expectedEvents));
     }
 
+    @Test
+    public void shouldRegisterAndUnregisterAll() {
+        List<StringCatcher> catchers = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            catchers.add(new StringCatcher());
+        }
+
+        bus.registerAll(catchers);
+        bus.post(EVENT);
+        bus.unregisterAll(catchers.subList(0, 500));
+        bus.post(EVENT);
+
+        assertThat(bus.getHandlersForEventType(String.class), hasSize(500));
+        assertThat("Unregistered catcher should have caught one event.", catchers.get(0).getEvents(), hasSize(1));
+        assertThat("Registered catcher should have caught both events.", catchers.get(999).getEvents(), hasSize(2));
+    }
+
+    @Test
+    public void shouldKeepListenersApartThatAreEqual() {
+        List<StringCatcher> catchers = Lists.newArrayList();
+        for (int i = 0; i < 1000; i++) {
+            StringCatcher catcher = new StringCatcher() {
+                @Override
+                public boolean equals(Object obj) {
+                    return obj instanceof StringCatcher;
+                }
+
+                @Override
+                public int hashCode() {
+                    return 42;
+                }
+            };
+            catchers.add(catcher);
+            bus.register(catcher);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            bus.unregister(catchers.get(i));
+        }
+        bus.post(EVENT);
+
+        assertThat(bus.getHandlersForEventType(String.class), hasSize(500));
+        assertThat("Unregistered catcher shouldn't have caught the event.", catchers.get(0).getEvents(), hasSize(0));
+        assertThat("Registered catcher should have caught the event.", catchers.get(1).getEvents(), hasSize(1));
+    }
+
+    @Test
+    public void shouldRemoveWeaklyRegisteredListenerOnceCollected() throws InterruptedException {
+        StringCatcher catcher = new StringCatcher();
+        bus.registerWeakly(catcher);
+        bus.post(EVENT);
+        assertThat("Weakly registered catcher should have caught the event.", catcher.getEvents(), hasSize(1));
+
+        WeakReference<StringCatcher> reference = new WeakReference<StringCatcher>(catcher);
+        catcher = null;
+        for (int i = 0; i < 100 && bus.getHandlersForEventType(String.class) != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+            bus.post(EVENT);
+        }
+
+        assertThat("Bus shouldn't keep the catcher alive.", reference.get(), nullValue());
+        assertThat("Collected catcher should have been removed.", bus.getHandlersForEventType(String.class), nullValue());
+    }
+
+    @Test
+    public void shouldUnregisterWeaklyRegisteredListener() {
+        StringCatcher catcher = new StringCatcher();
+        bus.registerWeakly(catcher);
+        bus.unregister(catcher);
+        bus.post(EVENT);
+
+        assertThat("Unregistered catcher shouldn't have caught the event.", catcher.getEvents(), hasSize(0));
+    }
+
+    @Test
+    public void shouldNotUnregisterAnyWhenOneIsNotRegistered() {
+        StringCatcher registered = new StringCatcher();
+        bus.register(registered);
+
+        try {
+            bus.unregisterAll(Lists.newArrayList(registered, new StringCatcher()));
+            fail("Attempting to unregister an unregistered object succeeded");
+        } catch (IllegalArgumentException expected) {
+            // OK.
+        }
+        bus.post(EVENT);
+
+        assertThat("Registered catcher should still be registered.", registered.getEvents(), hasSize(1));
+    }
+
+    @Test
+    public void shouldDeliverToSupertypeHandlerRegisteredAfterFirstPost() {
+        StringCatcher catcher = new StringCatcher();
+        bus.register(catcher);
+        bus.post(EVENT);
+
+        final List<Object> objectEvents = Lists.newArrayList();
+        Object objCatcher = new Object() {
+            @Subscribe
+            public void eat(Object food) {
+                objectEvents.add(food);
+            }
+        };
+        bus.register(objCatcher);
+        bus.post(EVENT);
+
+        assertThat("Both events should be delivered to the String handler.", catcher.getEvents(), hasSize(2));
+        assertThat("Only the second event should be delivered to the Object handler.", objectEvents, hasSize(1));
+
+        bus.unregister(objCatcher);
+        bus.post(EVENT);
+
+        assertThat("Shouldn't catch any more events when unregistered.", objectEvents, hasSize(1));
+        assertThat("All events should be delivered to the String handler.", catcher.getEvents(), hasSize(3));
+    }
+
     @Test
     public void shouldBeAbleToVetoEvent() {
         StringCatcher catcher = new StringCatcher();
@@ -224,6 +342,107 @@ public class T2BusTest {
         assertThat("Should not have caught vetoed event", catcher.getEvents(), hasSize(0));
     }
 
+    @Test
+    public void shouldPostAllEventsInOrderWithReentrantEventsInBetween() {
+        final List<Object> received = Lists.newArrayList();
+        bus.register(new Object() {
+            @Subscribe
+            public void onString(String s) {
+                received.add(s);
+                bus.post(s.length());
+            }
+
+            @Subscribe
+            public void onInteger(Integer i) {
+                received.add(i);
+            }
+        });
+
+        bus.postAll(Lists.<Object>newArrayList("one", 7, "three"));
+
+        assertThat(received, equalTo((List<Object>) Lists.<Object>newArrayList("one", 3, 7, "three", 5)));
+    }
+
+    @Test
+    public void shouldDeliverRemainingEventsOfRunToHandlerRegisteredDuringPostAll() {
+        final StringCatcher late = new StringCatcher();
+        bus.register(new Object() {
+            @Subscribe
+            public void onString(String s) {
+                if (s.equals("first")) {
+                    bus.register(late);
+                }
+            }
+        });
+
+        bus.postAll(Lists.newArrayList("first", "second", "third"));
+
+        assertThat(late.getEvents(), equalTo((List<String>) Lists.newArrayList("second", "third")));
+    }
+
+    @Test
+    public void shouldVetoAndForwardDeadEventsWhenPostingAll() {
+        StringCatcher catcher = new StringCatcher();
+        StringVetoer vetoer = new StringVetoer();
+        GhostCatcher ghostCatcher = new GhostCatcher();
+        bus.register(catcher);
+        bus.register(vetoer);
+        bus.register(ghostCatcher);
+
+        bus.postAll(Lists.<Object>newArrayList(EVENT, 1L, EVENT));
+
+        assertThat("Should have vetoed both events", vetoer.getVetoed(), hasSize(2));
+        assertThat("Should not have caught vetoed events", catcher.getEvents(), hasSize(0));
+        assertThat("Should have forwarded the unhandled event", ghostCatcher.getEvents(), hasSize(1));
+        assertThat("Should have forwarded the unhandled event", ghostCatcher.getEvents().get(0).getEvent(), equalTo((Object) 1L));
+    }
+
+    @Test
+    public void shouldCallHandlersByDescendingPriority() {
+        final List<String> calls = Lists.newArrayList();
+        bus.register(new Object() {
+            @Subscribe(priority = -1)
+            public void low(String s) {
+                calls.add("low");
+            }
+
+            @Subscribe(priority = 10)
+            public void high(Object o) {
+                calls.add("high");
+            }
+
+            @Subscribe
+            public void normal(CharSequence s) {
+                calls.add("normal");
+            }
+        });
+
+        bus.post(EVENT);
+
+        assertThat(calls, equalTo((List<String>) Lists.newArrayList("high", "normal", "low")));
+    }
+
+    @Test
+    public void shouldSkipLowerPriorityVetoersOnceVetoed() {
+        final List<String> calls = Lists.newArrayList();
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            public void expensive(String s) {
+                calls.add("expensive");
+            }
+
+            @Subscribe(canVeto = true, priority = 100)
+            public void cheap(String s) throws VetoException {
+                calls.add("cheap");
+                throw new VetoException();
+            }
+        });
+
+        bus.post(EVENT);
+
+        assertThat(calls, equalTo((List<String>) Lists.newArrayList("cheap")));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void shouldNotThrowVetoExceptionWhenNotCanVeto() {
         bus.register(new Object() {
@@ -302,6 +521,25 @@ public class T2BusTest {
         bus.post(EVENT, strategy);
     }
 
+    @Test
+    public void shouldRestoreDefaultStrategyWhenPassedInStrategyThrows() {
+        bus.register(new Object() {
+            @Subscribe
+            public void iThrow(String s) {
+                throw new IllegalArgumentException(s);
+            }
+        });
+
+        try {
+            bus.post(EVENT, new ThrowingEventHandlerStrategy());
+            fail("Should have received BusException");
+        } catch (BusException expected) {
+            // OK.
+        }
+
+        bus.post(EVENT);
+    }
+
     /**
      * A collector for DeadEvents.
      *
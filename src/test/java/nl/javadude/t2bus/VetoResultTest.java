@@ -0,0 +1,126 @@
+package nl.javadude.t2bus;
+
+import nl.javadude.t2bus.event.strategy.LoggingEventHandlerStrategy;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Test case for vetoers that return their decision, and for {@link VetoException}.
+ */
+public class VetoResultTest {
+    private final T2Bus bus = new T2Bus("test-bus");
+
+    @Test
+    public void shouldVetoWhenVetoerReturnsFalse() {
+        StringCatcher catcher = new StringCatcher();
+        bus.register(catcher);
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            public boolean passes(String s) {
+                return !s.startsWith("veto");
+            }
+        });
+
+        bus.post("veto me");
+        bus.post("pass me");
+
+        assertThat(catcher.getEvents(), contains("pass me"));
+    }
+
+    @Test
+    public void shouldVetoWithReasonWhenVetoerReturnsVetoResult() {
+        StringCatcher catcher = new StringCatcher();
+        final VetoResult disabled = VetoResult.veto("disabled");
+        bus.register(catcher);
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            public VetoResult check(String s) {
+                return s.startsWith("veto") ? disabled : VetoResult.PASSED;
+            }
+        });
+        final List<VetoResult> vetoes = newArrayList();
+
+        EventHandlerStrategy strategy = new LoggingEventHandlerStrategy() {
+            @Override
+            protected boolean handleVetoResult(Object event, EventHandler wrapper, VetoResult result) {
+                vetoes.add(result);
+                return super.handleVetoResult(event, wrapper, result);
+            }
+        };
+        bus.post("veto me", strategy);
+        bus.post("pass me", strategy);
+
+        assertThat(catcher.getEvents(), contains("pass me"));
+        assertThat(vetoes, contains(sameInstance(disabled)));
+        assertThat(vetoes.get(0).getReason(), equalTo("disabled"));
+    }
+
+    @Test
+    public void shouldThrowReturnedVetoToStrategiesCallingHandleEvent() {
+        StringCatcher catcher = new StringCatcher();
+        bus.register(catcher);
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            public VetoResult check(String s) {
+                return VetoResult.veto("disabled");
+            }
+        });
+        final List<String> vetoes = newArrayList();
+
+        bus.post("event", new EventHandlerStrategy() {
+            @Override
+            public boolean handle(Object event, EventHandler wrapper) {
+                try {
+                    wrapper.handleEvent(event);
+                    return true;
+                } catch (VetoException e) {
+                    vetoes.add(e.getMessage());
+                    return false;
+                } catch (InvocationTargetException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+
+        assertThat(vetoes, contains("disabled"));
+        assertThat(catcher.getEvents().size(), equalTo(0));
+    }
+
+    @Test
+    public void shouldNotTreatReturnValueOfNonVetoerAsVeto() {
+        final List<String> handled = newArrayList();
+        bus.register(new Object() {
+            @Subscribe
+            public boolean handle(String s) {
+                handled.add(s);
+                return false;
+            }
+
+            @Subscribe(priority = -1)
+            public void after(String s) {
+                handled.add("after " + s);
+            }
+        });
+
+        bus.post("event");
+
+        assertThat(handled, contains("event", "after event"));
+    }
+
+    @Test
+    public void shouldNotRecordStackTraceOfVetoException() {
+        VetoException e = new VetoException("vetoed %s", "event");
+
+        assertThat(e.getStackTrace(), emptyArray());
+        assertThat(e.getMessage(), equalTo("vetoed event"));
+    }
+}
@@ -0,0 +1,127 @@
+package nl.javadude.t2bus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Test case for {@link VirtualThreadT2Bus}.
+ */
+public class VirtualThreadT2BusTest {
+    private VirtualThreadT2Bus bus;
+
+    @Before
+    public void setUp() {
+        bus = new VirtualThreadT2Bus("test-bus");
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        bus.shutdown();
+        bus.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldNotBlockPosterOnBlockingHandler() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch delivered = new CountDownLatch(2);
+        final Thread poster = Thread.currentThread();
+        final AtomicInteger deliveredOnPoster = new AtomicInteger();
+        Object blockingHandler = new Object() {
+            @Subscribe
+            @AllowConcurrentEvents
+            public void onString(String s) throws InterruptedException {
+                if (Thread.currentThread() == poster) {
+                    deliveredOnPoster.incrementAndGet();
+                }
+                release.await();
+                delivered.countDown();
+            }
+        };
+        bus.register(blockingHandler);
+
+        bus.post("one");
+        bus.post("two");
+        release.countDown();
+
+        assertThat("Both deliveries should finish.", delivered.await(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat("No event should be delivered on the posting thread.", deliveredOnPoster.get(), equalTo(0));
+    }
+
+    @Test
+    public void shouldDeliverToConcurrentHandlerInParallel() throws InterruptedException {
+        // Every delivery waits for the other to have started, which only completes when they overlap.
+        final CountDownLatch started = new CountDownLatch(2);
+        final AtomicInteger overlapping = new AtomicInteger();
+        bus.register(new Object() {
+            @Subscribe
+            @AllowConcurrentEvents
+            public void onString(String s) throws InterruptedException {
+                started.countDown();
+                if (started.await(5, TimeUnit.SECONDS)) {
+                    overlapping.incrementAndGet();
+                }
+            }
+        });
+
+        bus.post("one");
+        bus.post("two");
+        bus.shutdown();
+
+        assertThat("All deliveries should finish.", bus.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat("Both deliveries should have overlapped.", overlapping.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldSerializeDeliveriesToSynchronizedHandler() throws InterruptedException {
+        ConcurrencyRecorder recorder = new ConcurrencyRecorder();
+        bus.register(recorder);
+
+        for (int i = 0; i < 100; i++) {
+            bus.post(i);
+        }
+        bus.shutdown();
+
+        assertThat("All deliveries should finish.", bus.awaitTermination(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat("All events should be delivered.", recorder.delivered, equalTo(100));
+        assertThat("Deliveries should never overlap.", recorder.maxConcurrent, equalTo(1));
+    }
+
+    @Test
+    public void shouldStillVetoOnPostingThread() {
+        StringCatcher catcher = new StringCatcher();
+        StringVetoer vetoer = new StringVetoer();
+        bus.register(catcher);
+        bus.register(vetoer);
+
+        bus.post("Hello");
+
+        assertThat("Should have vetoed event before post returned", vetoer.getVetoed(), hasSize(1));
+        assertThat("Should not have caught vetoed event", catcher.getEvents(), hasSize(0));
+    }
+
+    public static class ConcurrencyRecorder {
+        private final AtomicInteger concurrent = new AtomicInteger();
+        volatile int maxConcurrent;
+        volatile int delivered;
+
+        @Subscribe
+        public void onInteger(Integer i) throws InterruptedException {
+            int current = concurrent.incrementAndGet();
+            if (current > maxConcurrent) {
+                maxConcurrent = current;
+            }
+            Thread.sleep(1);
+            delivered++;
+            concurrent.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package nl.javadude.t2bus.event.strategy;
+
+import com.google.common.collect.Lists;
+import nl.javadude.t2bus.EventHandler;
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import nl.javadude.t2bus.VetoException;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Test case for {@link AggregatingEventHandlerStrategy}.
+ */
+public class AggregatingEventHandlerStrategyTest {
+    private final T2Bus bus = new T2Bus("test-bus");
+
+    @Test
+    public void shouldSampleAndSummarizeFailures() throws InterruptedException {
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            public void veto(Integer i) throws VetoException {
+                throw new VetoException();
+            }
+
+            @Subscribe
+            public void fail(String s) {
+                throw new IllegalStateException(s);
+            }
+        });
+        RecordingStrategy strategy = new RecordingStrategy();
+
+        for (int i = 0; i < 1000; i++) {
+            bus.post("event", strategy);
+            bus.post(i, strategy);
+        }
+        strategy.shutdown();
+        assertThat(strategy.awaitTermination(5, TimeUnit.SECONDS), equalTo(true));
+
+        assertThat("Only 2 failures of each kind should be reported individually.", strategy.samples, hasSize(4));
+        assertThat(strategy.summaries, containsInAnyOrder("fail IllegalStateException 1000", "veto VetoException 1000"));
+    }
+
+    @Test
+    public void shouldStopCountingKindsOfFailuresThatNoLongerOccur() throws InterruptedException {
+        bus.register(new Object() {
+            @Subscribe
+            public void fail(String s) {
+                throw new IllegalStateException(s);
+            }
+        });
+        RecordingStrategy strategy = new RecordingStrategy(10, TimeUnit.MILLISECONDS);
+
+        bus.post("event", strategy);
+        assertThat(strategy.countedKinds(), equalTo(1));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (strategy.countedKinds() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        strategy.shutdown();
+
+        assertThat("Failure should no longer be counted after an interval without it.", strategy.countedKinds(), equalTo(0));
+        assertThat(strategy.summaries, equalTo((List<String>) Lists.newArrayList("fail IllegalStateException 1")));
+    }
+
+    private static class RecordingStrategy extends AggregatingEventHandlerStrategy {
+        final List<String> samples = Lists.newCopyOnWriteArrayList();
+        final List<String> summaries = Lists.newCopyOnWriteArrayList();
+
+        RecordingStrategy() {
+            this(1, TimeUnit.HOURS);
+        }
+
+        RecordingStrategy(long interval, TimeUnit unit) {
+            super(interval, unit, 2);
+        }
+
+        @Override
+        protected void reportSample(Object event, EventHandler handler, Throwable cause) {
+            samples.add(handler.getMethod().getName() + " " + event);
+        }
+
+        @Override
+        protected void reportSummary(Method handler, Class<? extends Throwable> exceptionType, long count, long intervalMillis) {
+            summaries.add(handler.getName() + " " + exceptionType.getSimpleName() + " " + count);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package nl.javadude.t2bus.metrics;
+
+import nl.javadude.t2bus.Subscribe;
+import nl.javadude.t2bus.T2Bus;
+import nl.javadude.t2bus.VetoException;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Test case for {@link HistogramDispatchMetrics}.
+ */
+public class HistogramDispatchMetricsTest {
+    private T2Bus bus;
+    private HistogramDispatchMetrics metrics;
+
+    @Before
+    public void setUp() {
+        bus = new T2Bus("test-bus");
+        metrics = new HistogramDispatchMetrics();
+        bus.setDispatchMetrics(metrics);
+    }
+
+    @Test
+    public void shouldCountEventsPerType() {
+        bus.register(new Object() {
+            @Subscribe(canVeto = true)
+            public void veto(String s) throws VetoException {
+                if (s.equals("veto")) {
+                    throw new VetoException();
+                }
+            }
+        });
+
+        bus.post("pass");
+        bus.post("veto");
+        bus.post(1);
+
+        assertThat(metrics.getPostedEvents().get(String.class.getName()), equalTo(2L));
+        assertThat(metrics.getDispatchedEvents().get(String.class.getName()), equalTo(2L));
+        assertThat(metrics.getVetoedEvents().get(String.class.getName()), equalTo(1L));
+        assertThat(metrics.getDeadEvents().get(Integer.class.getName()), equalTo(1L));
+    }
+
+    @Test
+    public void shouldRecordLatencyPerHandler() {
+        bus.register(new Object() {
+            @Subscribe
+            public void handle(String s) throws InterruptedException {
+                Thread.sleep(2);
+            }
+        });
+
+        bus.post("a");
+        bus.post("b");
+
+        assertThat(metrics.getHandlerLatencies(), hasSize(1));
+        HandlerLatency latency = metrics.getHandlerLatencies().get(0);
+        assertThat(latency.getCount(), equalTo(2L));
+        assertThat(2000000L, lessThanOrEqualTo(latency.getMedianNanos()));
+        assertThat(latency.getMedianNanos(), lessThanOrEqualTo(latency.getMaxNanos()));
+    }
+
+    @Test
+    public void shouldStopMeasuringWhenRemoved() {
+        bus.setDispatchMetrics(null);
+        bus.post("a");
+
+        assertThat(metrics.getPostedEvents().size(), equalTo(0));
+    }
+
+    @Test
+    public void shouldExposeMetricsThroughJmx() throws Exception {
+        bus.post("a");
+        ObjectName name = metrics.registerMBean("jmx-test-bus");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            CompositeData latency = (CompositeData) server.getAttribute(name, "DispatchLatency");
+            assertThat(latency.get("count"), equalTo((Object) 0L));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}